@@ -0,0 +1,86 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.comment.CommentMapper;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.repository.ItemCommentView;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private List<Item> items;
+    private List<Booking> bookings;
+    private List<Comment> comments;
+    private List<ItemCommentView> commentViews;
+
+    @Setup
+    public void setUp() {
+        User owner = SyntheticData.user(1);
+        User booker = SyntheticData.user(2);
+        items = SyntheticData.items(size, owner);
+        bookings = SyntheticData.bookings(items, 1, booker);
+        comments = SyntheticData.comments(items, 1, booker);
+        commentViews = SyntheticData.commentViews(items, 1, booker);
+    }
+
+    @Benchmark
+    public void bookingToResponse(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(BookingMapper.toBookingDtoResponse(booking));
+        }
+    }
+
+    @Benchmark
+    public void bookingToDto(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(BookingMapper.toBookingDto(booking));
+        }
+    }
+
+    @Benchmark
+    public void itemToItemDtoBooking(Blackhole blackhole) {
+        for (Item item : items) {
+            blackhole.consume(ItemMapper.toItemDtoBooking(item));
+        }
+    }
+
+    @Benchmark
+    public void commentToDto(Blackhole blackhole) {
+        for (Comment comment : comments) {
+            blackhole.consume(CommentMapper.toCommentDto(comment));
+        }
+    }
+
+    @Benchmark
+    public void commentViewToDto(Blackhole blackhole) {
+        for (ItemCommentView comment : commentViews) {
+            blackhole.consume(CommentMapper.toCommentDto(comment));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit;
+
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.repository.ItemCommentView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public final class SyntheticData {
+    public static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    private SyntheticData() {
+    }
+
+    public static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("user" + id);
+        user.setEmail("user" + id + "@bench.test");
+        return user;
+    }
+
+    public static List<Item> items(int count, User owner) {
+        List<Item> items = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            Item item = new Item();
+            item.setId(id);
+            item.setName("item" + id);
+            item.setDescription("synthetic item " + id);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            items.add(item);
+        }
+        return items;
+    }
+
+    public static List<Booking> bookings(List<Item> items, int perItem, User booker) {
+        List<Booking> bookings = new ArrayList<>(items.size() * perItem);
+        long id = 1;
+        for (Item item : items) {
+            for (int i = 0; i < perItem; i++) {
+                Booking booking = new Booking();
+                booking.setId(id++);
+                booking.setStart(NOW.plusDays(i * 2L - perItem));
+                booking.setEnd(NOW.plusDays(i * 2L - perItem + 1));
+                booking.setItem(item);
+                booking.setBooker(booker);
+                booking.setStatus(BookingStatus.APPROVED);
+                bookings.add(booking);
+            }
+        }
+        return bookings;
+    }
+
+    public static List<Comment> comments(List<Item> items, int perItem, User author) {
+        List<Comment> comments = new ArrayList<>(items.size() * perItem);
+        long id = 1;
+        for (Item item : items) {
+            for (int i = 0; i < perItem; i++) {
+                Comment comment = new Comment();
+                comment.setId(id++);
+                comment.setText("synthetic comment " + i);
+                comment.setItem(item);
+                comment.setAuthor(author);
+                comment.setCreated(NOW.minusDays(i));
+                comments.add(comment);
+            }
+        }
+        return comments;
+    }
+
+    public static List<ItemCommentView> commentViews(List<Item> items, int perItem, User author) {
+        SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+        List<ItemCommentView> comments = new ArrayList<>(items.size() * perItem);
+        long id = 1;
+        for (Item item : items) {
+            for (int i = 0; i < perItem; i++) {
+                comments.add(projections.createProjection(ItemCommentView.class, Map.of(
+                        "id", id++,
+                        "text", "synthetic comment " + i,
+                        "itemId", item.getId(),
+                        "authorName", author.getName(),
+                        "created", NOW.minusDays(i),
+                        "total", (long) perItem)));
+            }
+        }
+        return comments;
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.item.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.SyntheticData;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.comment.repository.ItemCommentView;
+import ru.practicum.shareit.item.dto.ItemBookingDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemViewMergeBenchmark {
+    @Param({"10", "1000"})
+    private int items;
+    @Param({"2"})
+    private int bookingsPerItem;
+    @Param({"5", "50"})
+    private int commentsPerItem;
+
+    private List<Item> itemList;
+    private List<Booking> bookings;
+    private List<ItemCommentView> comments;
+
+    @Setup
+    public void setUp() {
+        User owner = SyntheticData.user(1);
+        User booker = SyntheticData.user(2);
+        itemList = SyntheticData.items(items, owner);
+        bookings = SyntheticData.bookings(itemList, bookingsPerItem, booker);
+        comments = SyntheticData.commentViews(itemList, commentsPerItem, booker);
+    }
+
+    @Benchmark
+    public List<ItemBookingDto> mergeItemView() {
+        return ItemServiceImpl.mergeItemView(itemList, bookings, comments, SyntheticData.NOW);
+    }
+}
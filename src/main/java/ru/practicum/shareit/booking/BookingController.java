@@ -1,20 +1,27 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
-
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingBulkStatusDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.metrics.SqlBudget;
 import ru.practicum.shareit.user.Create;
 
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 import java.util.List;
 
 @RestController
+@Validated
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class BookingController {
@@ -22,6 +29,7 @@ public class BookingController {
     private final BookingService bookingService;
     private final String header = "X-Sharer-User-Id";
 
+    @SqlBudget(7)
     @PostMapping
     public BookingResponseDto create(@RequestHeader(header) long id,
                                      @Validated(Create.class)
@@ -29,6 +37,14 @@ public class BookingController {
         return bookingService.create(id, bookingDto);
     }
 
+    @SqlBudget(13)
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBatch(@RequestHeader(header) long userId,
+                                                   @RequestBody List<BookingDto> bookingDtos) {
+        return bookingService.createBatch(userId, bookingDtos);
+    }
+
+    @SqlBudget(4)
     @PatchMapping("/{bookingId}")
     public BookingResponseDto changeStatus(@RequestHeader(header) long userId,
                                            @PathVariable long bookingId,
@@ -36,21 +52,67 @@ public class BookingController {
         return bookingService.changeStatus(userId, bookingId, approved);
     }
 
+    @SqlBudget(4)
+    @PatchMapping("/bulk")
+    public List<BookingResponseDto> changeStatuses(@RequestHeader(header) long userId,
+                                                   @RequestParam boolean approved,
+                                                   @RequestBody BookingBulkStatusDto bulk) {
+        return bookingService.changeStatuses(userId, bulk, approved);
+    }
+
+    @SqlBudget(1)
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(header) long userId) {
+        return bookingService.subscribe(userId);
+    }
+
+    @SqlBudget(2)
     @GetMapping("/{bookingId}")
     public BookingResponseDto getById(@RequestHeader(header) long userId,
                                       @PathVariable long bookingId) {
         return bookingService.getBookingInfo(userId, bookingId);
     }
 
+    @SqlBudget(4)
     @GetMapping
-    public List<BookingResponseDto> getByBooker(@RequestHeader(header) long userId,
-                                                @RequestParam(defaultValue = "ALL", required = false) String state) {
-        return bookingService.getByBooker(userId, state);
+    public ResponseEntity<List<BookingResponseDto>> getByBooker(
+            @RequestHeader(header) long userId,
+            @RequestParam(defaultValue = "ALL", required = false) String state,
+            @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+            @Positive @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        return withNextCursor(bookingService.getByBooker(userId, state, from, size, cursor), size);
     }
 
+    @SqlBudget(4)
     @GetMapping("/owner")
-    public List<BookingResponseDto> getByOwner(@RequestHeader(header) long userId,
-                                               @RequestParam(defaultValue = "ALL", required = false) String state) {
-        return bookingService.getByOwner(userId, state);
+    public ResponseEntity<List<BookingResponseDto>> getByOwner(
+            @RequestHeader(header) long userId,
+            @RequestParam(defaultValue = "ALL", required = false) String state,
+            @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+            @Positive @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        return withNextCursor(bookingService.getByOwner(userId, state, from, size, cursor), size);
+    }
+
+    @SqlBudget(2)
+    @GetMapping("/summary")
+    public BookingSummaryDto getBookerSummary(@RequestHeader(header) long userId) {
+        return bookingService.getBookerSummary(userId);
+    }
+
+    @SqlBudget(2)
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getOwnerSummary(@RequestHeader(header) long userId) {
+        return bookingService.getOwnerSummary(userId);
+    }
+
+    private static ResponseEntity<List<BookingResponseDto>> withNextCursor(List<BookingResponseDto> page, int size) {
+        if (page.size() < size) {
+            return ResponseEntity.ok(page);
+        }
+        return ResponseEntity.ok()
+                .header(BookingCursor.HEADER, BookingCursor.after(page.get(page.size() - 1)).encode())
+                .body(page);
     }
 }
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a booking list ordered by (start, id). Clients get it as an opaque token in the
+ * {@code X-Next-Cursor} header and pass it back as {@code cursor} to continue after the last row they saw.
+ */
+@Getter
+@RequiredArgsConstructor
+public class BookingCursor {
+    public static final String HEADER = "X-Next-Cursor";
+    private static final BookingCursor HEAD_DESC = new BookingCursor(LocalDateTime.of(9999, 12, 31, 0, 0),
+            Long.MAX_VALUE);
+    private static final BookingCursor HEAD_ASC = new BookingCursor(LocalDateTime.of(1, 1, 1, 0, 0),
+            Long.MIN_VALUE);
+
+    private final LocalDateTime start;
+    private final long id;
+
+    /** Position before the first row of a descending list. */
+    public static BookingCursor headDesc() {
+        return HEAD_DESC;
+    }
+
+    /** Position before the first row of an ascending list. */
+    public static BookingCursor headAsc() {
+        return HEAD_ASC;
+    }
+
+    public static BookingCursor after(BookingResponseDto booking) {
+        return new BookingCursor(booking.getStart(), booking.getId());
+    }
+
+    public static BookingCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new BookingCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((start + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -2,8 +2,12 @@ package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingStateCounts;
+import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
 public class BookingMapper {
@@ -29,8 +33,17 @@ public class BookingMapper {
         return new BookingResponseDto(booking.getId(),
                 booking.getStart(),
                 booking.getEnd(),
-                booking.getItem(),
-                booking.getBooker(),
+                ItemMapper.toItemDto(booking.getItem()),
+                UserMapper.toUserDto(booking.getBooker()),
                 booking.getStatus());
     }
+
+    public static BookingSummaryDto toBookingSummaryDto(BookingStateCounts counts) {
+        return new BookingSummaryDto(counts.getAllCount(),
+                counts.getCurrentCount(),
+                counts.getPastCount(),
+                counts.getFutureCount(),
+                counts.getWaitingCount(),
+                counts.getRejectedCount());
+    }
 }
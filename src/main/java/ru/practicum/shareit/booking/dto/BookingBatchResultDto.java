@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingBatchResultDto {
+    int index;
+    BookingResponseDto booking;
+    String error;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingBulkStatusDto {
+    List<Long> bookingIds;
+    Long itemId;
+}
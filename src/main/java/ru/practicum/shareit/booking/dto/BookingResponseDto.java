@@ -3,8 +3,8 @@ package ru.practicum.shareit.booking.dto;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
 
 import java.time.LocalDateTime;
 
@@ -18,7 +18,7 @@ public class BookingResponseDto {
     Long id;
     LocalDateTime start;
     LocalDateTime end;
-    Item item;
-    User booker;
+    ItemDto item;
+    UserDto booker;
     BookingStatus status;
 }
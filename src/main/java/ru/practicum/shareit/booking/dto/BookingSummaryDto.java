@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookingSummaryDto {
+    long all;
+    long current;
+    long past;
+    long future;
+    long waiting;
+    long rejected;
+}
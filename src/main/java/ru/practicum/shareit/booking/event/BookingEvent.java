@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookingEvent {
+    private final long bookerId;
+    private final long ownerId;
+    private final BookingResponseDto booking;
+}
@@ -0,0 +1,183 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes committed booking changes to the booker's and the owner's SSE subscriptions.
+ * Publishing only offers to bounded per-subscriber buffers; sending happens on the event executor.
+ * A subscriber whose buffer overflows, or whose single send runs past {@code shareit.booking-events.send-timeout},
+ * is disconnected: its sender thread is interrupted and the emitter is completed by the drain, never by the
+ * publishing thread, since a blocked send holds the emitter's monitor.
+ */
+@Slf4j
+@Component
+public class BookingEventPublisher {
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+
+    public BookingEventPublisher(@Qualifier("bookingEventExecutor") Executor executor,
+                                 @Value("${shareit.booking-events.buffer:32}") int bufferSize,
+                                 @Value("${shareit.booking-events.timeout:PT30M}") Duration timeout,
+                                 @Value("${shareit.booking-events.send-timeout:PT10S}") Duration sendTimeout) {
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+    }
+
+    public SseEmitter subscribe(long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void publish(BookingEvent event) {
+        deliver(event.getBookerId(), event);
+        if (event.getOwnerId() != event.getBookerId()) deliver(event.getOwnerId(), event);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-events.send-check-interval:PT1S}")
+    public void disconnectStalled() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> recipients : subscribers.values()) {
+            for (Subscriber subscriber : recipients) {
+                subscriber.lock.lock();
+                try {
+                    if (subscriber.sender != null && now - subscriber.sendStarted > sendTimeoutNanos) {
+                        log.info("Disconnecting stalled booking event subscriber {}", subscriber.userId);
+                        disconnect(subscriber);
+                    }
+                } finally {
+                    subscriber.lock.unlock();
+                }
+            }
+        }
+    }
+
+    int subscribers(long userId) {
+        Set<Subscriber> recipients = subscribers.get(userId);
+        return recipients == null ? 0 : recipients.size();
+    }
+
+    private void deliver(long userId, BookingEvent event) {
+        Set<Subscriber> recipients = subscribers.get(userId);
+        if (recipients == null) return;
+        for (Subscriber subscriber : recipients) {
+            if (!subscriber.queue.offer(event)) {
+                log.info("Disconnecting slow booking event subscriber {}", userId);
+                subscriber.lock.lock();
+                try {
+                    disconnect(subscriber);
+                } finally {
+                    subscriber.lock.unlock();
+                }
+            }
+            if (subscriber.draining.compareAndSet(false, true)) executor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        subscriber.closed = true;
+        remove(subscriber);
+        if (subscriber.sender != null) subscriber.sender.interrupt();
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            BookingEvent event;
+            while (!subscriber.closed && (event = subscriber.queue.poll()) != null) {
+                if (!send(subscriber, event)) {
+                    subscriber.closed = true;
+                    remove(subscriber);
+                }
+            }
+            if (subscriber.closed) {
+                subscriber.queue.clear();
+                complete(subscriber.emitter);
+                return;
+            }
+            subscriber.draining.set(false);
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private boolean send(Subscriber subscriber, BookingEvent event) {
+        subscriber.lock.lock();
+        try {
+            if (subscriber.closed) return false;
+            subscriber.sender = Thread.currentThread();
+            subscriber.sendStarted = System.nanoTime();
+        } finally {
+            subscriber.lock.unlock();
+        }
+        try {
+            subscriber.emitter.send(SseEmitter.event()
+                    .name(event.getBooking().getStatus().name())
+                    .data(event.getBooking()));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        } finally {
+            subscriber.lock.lock();
+            try {
+                subscriber.sender = null;
+                Thread.interrupted();
+            } finally {
+                subscriber.lock.unlock();
+            }
+        }
+    }
+
+    private static void complete(SseEmitter emitter) {
+        try {
+            emitter.complete();
+        } catch (IllegalStateException e) {
+            log.debug("Booking event emitter already completed", e);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @RequiredArgsConstructor
+    private static class Subscriber {
+        private final long userId;
+        private final SseEmitter emitter;
+        private final Queue<BookingEvent> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final Lock lock = new ReentrantLock();
+        private volatile boolean closed;
+        private Thread sender;
+        private long sendStarted;
+    }
+}
@@ -1,91 +1,265 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 
+import javax.persistence.LockModeType;
+
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerIdOrderByStartDesc(long userId);
+    String COLUMNS = "bk.id, bk.start_time, bk.end_time, bk.item_id, bk.booker_id, bk.status";
+    String BEFORE = "and (bk.start_time < :cursorStart or (bk.start_time = :cursorStart and bk.id < :cursorId)) ";
+    String AFTER = "and (bk.start_time > :cursorStart or (bk.start_time = :cursorStart and bk.id > :cursorId)) ";
+    String STATE_COUNTS = "select count(*) as allCount, " +
+            "coalesce(sum(case when b.start_time < :now and b.end_time > :now then 1 else 0 end), 0) " +
+            "as currentCount, " +
+            "coalesce(sum(case when b.end_time < :now then 1 else 0 end), 0) as pastCount, " +
+            "coalesce(sum(case when b.start_time > :now then 1 else 0 end), 0) as futureCount, " +
+            "coalesce(sum(case when b.status = 'WAITING' then 1 else 0 end), 0) as waitingCount, " +
+            "coalesce(sum(case when b.status = 'REJECTED' then 1 else 0 end), 0) as rejectedCount ";
+
+    @Override
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<Booking> findById(Long id);
+
+    @Query(value = "select * from bookings_archive bk where bk.id = ?1", nativeQuery = true)
+    Optional<Booking> findArchivedById(long id);
 
+    @Query(value = "select * from (" +
+            "select " + COLUMNS + " from bookings bk where bk.booker_id = :userId " + BEFORE +
+            "union all " +
+            "select " + COLUMNS + " from bookings_archive bk where bk.booker_id = :userId " + BEFORE + ") b " +
+            "order by b.start_time desc, b.id desc",
+            nativeQuery = true)
+    List<Booking> findAllByBookerIdOrderByStartDescIdDesc(@Param("userId") long userId,
+                                                          @Param("cursorStart") LocalDateTime cursorStart,
+                                                          @Param("cursorId") long cursorId,
+                                                          Pageable pageable);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("select booking from Booking booking " +
             "where booking.start < ?2 " +
             "and booking.end > ?2 " +
             "and booking.booker.id = ?1 " +
-            "order by booking.start")
-    List<Booking> findByBookerCurrent(long userId, LocalDateTime now);
+            "and (booking.start > ?3 or (booking.start = ?3 and booking.id > ?4)) " +
+            "order by booking.start, booking.id")
+    List<Booking> findByBookerCurrent(long userId, LocalDateTime now, LocalDateTime cursorStart, long cursorId,
+                                      Pageable pageable);
 
-    @Query("select booking from Booking booking " +
-            "where booking.end < ?2 " +
-            "and booking.booker.id = ?1 " +
-            "order by booking.start asc")
-    List<Booking> findByBookerPast(long userId, LocalDateTime end);
+    @Query(value = "select * from (" +
+            "select " + COLUMNS + " from bookings bk where bk.booker_id = :userId and bk.end_time < :now " + AFTER +
+            "union all " +
+            "select " + COLUMNS + " from bookings_archive bk where bk.booker_id = :userId and bk.end_time < :now " +
+            AFTER + ") b " +
+            "order by b.start_time asc, b.id asc",
+            nativeQuery = true)
+    List<Booking> findByBookerPast(@Param("userId") long userId, @Param("now") LocalDateTime end,
+                                   @Param("cursorStart") LocalDateTime cursorStart,
+                                   @Param("cursorId") long cursorId,
+                                   Pageable pageable);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("select booking from Booking booking " +
             "where booking.start > ?2 " +
             "and booking.booker.id = ?1 " +
-            "order by booking.start desc")
-    List<Booking> findByBookerFuture(long userId, LocalDateTime start);
+            "and (booking.start < ?3 or (booking.start = ?3 and booking.id < ?4)) " +
+            "order by booking.start desc, booking.id desc")
+    List<Booking> findByBookerFuture(long userId, LocalDateTime start, LocalDateTime cursorStart, long cursorId,
+                                     Pageable pageable);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("select booking from Booking booking " +
             "where booking.status = ?2 " +
             "and booking.booker.id = ?1 " +
-            "order by booking.status desc")
-    List<Booking> findByBookerAndStatus(long userId, BookingStatus status);
+            "and (booking.start < ?3 or (booking.start = ?3 and booking.id < ?4)) " +
+            "order by booking.start desc, booking.id desc")
+    List<Booking> findByBookerAndStatus(long userId, BookingStatus status, LocalDateTime cursorStart, long cursorId,
+                                        Pageable pageable);
 
-    List<Booking> findByItemOwnerIdOrderByStartDesc(long ownerId);
+    @Query(value = "select * from (" +
+            "select " + COLUMNS + " from bookings bk where bk.booker_id = :userId and bk.status = :status " +
+            BEFORE +
+            "union all " +
+            "select " + COLUMNS + " from bookings_archive bk where bk.booker_id = :userId and bk.status = :status " +
+            BEFORE + ") b " +
+            "order by b.start_time desc, b.id desc",
+            nativeQuery = true)
+    List<Booking> findHistoryByBookerAndStatus(@Param("userId") long userId, @Param("status") String status,
+                                               @Param("cursorStart") LocalDateTime cursorStart,
+                                               @Param("cursorId") long cursorId,
+                                               Pageable pageable);
+
+    @Query(value = "select * from (" +
+            "select " + COLUMNS + " from bookings bk join items i on i.id = bk.item_id " +
+            "where i.owner_id = :ownerId " + BEFORE +
+            "union all " +
+            "select " + COLUMNS + " from bookings_archive bk join items i on i.id = bk.item_id " +
+            "where i.owner_id = :ownerId " + BEFORE + ") b " +
+            "order by b.start_time desc, b.id desc",
+            nativeQuery = true)
+    List<Booking> findByItemOwnerIdOrderByStartDescIdDesc(@Param("ownerId") long ownerId,
+                                                          @Param("cursorStart") LocalDateTime cursorStart,
+                                                          @Param("cursorId") long cursorId,
+                                                          Pageable pageable);
 
     @Query("select booking from Booking booking " +
+            "join fetch booking.item item " +
+            "join fetch booking.booker " +
             "where booking.start < ?2 " +
             "and booking.end > ?2 " +
-            "and booking.item.owner.id = ?1 " +
-            "order by booking.start")
-    List<Booking> findByItemOwnerCurrent(long userId, LocalDateTime now);
+            "and item.owner.id = ?1 " +
+            "and (booking.start > ?3 or (booking.start = ?3 and booking.id > ?4)) " +
+            "order by booking.start, booking.id")
+    List<Booking> findByItemOwnerCurrent(long userId, LocalDateTime now, LocalDateTime cursorStart, long cursorId,
+                                         Pageable pageable);
 
-    @Query("select booking from Booking booking " +
-            "where booking.end < ?2 " +
-            "and booking.item.owner.id = ?1 " +
-            "order by booking.start desc")
-    List<Booking> findByItemOwnerPast(long userId, LocalDateTime end);
+    @Query(value = "select * from (" +
+            "select " + COLUMNS + " from bookings bk join items i on i.id = bk.item_id " +
+            "where i.owner_id = :ownerId and bk.end_time < :now " + BEFORE +
+            "union all " +
+            "select " + COLUMNS + " from bookings_archive bk join items i on i.id = bk.item_id " +
+            "where i.owner_id = :ownerId and bk.end_time < :now " + BEFORE + ") b " +
+            "order by b.start_time desc, b.id desc",
+            nativeQuery = true)
+    List<Booking> findByItemOwnerPast(@Param("ownerId") long userId, @Param("now") LocalDateTime end,
+                                      @Param("cursorStart") LocalDateTime cursorStart,
+                                      @Param("cursorId") long cursorId,
+                                      Pageable pageable);
 
     @Query("select booking from Booking booking " +
+            "join fetch booking.item item " +
+            "join fetch booking.booker " +
             "where booking.start > ?2 " +
-            "and booking.item.owner.id = ?1 " +
-            "order by booking.start desc")
-    List<Booking> findByItemOwnerFuture(long userId, LocalDateTime start);
+            "and item.owner.id = ?1 " +
+            "and (booking.start < ?3 or (booking.start = ?3 and booking.id < ?4)) " +
+            "order by booking.start desc, booking.id desc")
+    List<Booking> findByItemOwnerFuture(long userId, LocalDateTime start, LocalDateTime cursorStart, long cursorId,
+                                        Pageable pageable);
 
     @Query("select booking from Booking booking " +
+            "join fetch booking.item item " +
+            "join fetch booking.booker " +
             "where booking.status = ?2 " +
-            "and booking.item.owner.id = ?1 " +
-            "order by booking.status desc")
-    List<Booking> findByItemOwnerAndStatus(long userId, BookingStatus status);
-
-    Optional<Booking> findByBookerIdAndItemIdAndEndBefore(long bookerId, long itemId, LocalDateTime end);
-
-    @Query("select distinct booking " +
-            "from Booking booking " +
-            "where booking.end < :now " +
-            "and booking.item.id in :ids " +
-            "and booking.item.owner.id = :userId " +
-            "order by booking.start asc ")
-    List<Booking> findBookingsLast(@Param("ids") List<Long> ids,
-                                   @Param("now") LocalDateTime now,
-                                   @Param("userId") long userId);
-
-    @Query("select distinct booking " +
-            "from Booking booking " +
-            "where booking.start > :now " +
-            "and booking.item.id in :ids " +
-            "and booking.item.owner.id = :userId " +
-            "order by booking.start asc ")
-    List<Booking> findBookingsNext(@Param("ids") List<Long> ids,
-                                   @Param("now") LocalDateTime now,
-                                   @Param("userId") long userId);
+            "and item.owner.id = ?1 " +
+            "and (booking.start < ?3 or (booking.start = ?3 and booking.id < ?4)) " +
+            "order by booking.start desc, booking.id desc")
+    List<Booking> findByItemOwnerAndStatus(long userId, BookingStatus status, LocalDateTime cursorStart,
+                                           long cursorId, Pageable pageable);
+
+    @Query(value = "select * from (" +
+            "select " + COLUMNS + " from bookings bk join items i on i.id = bk.item_id " +
+            "where i.owner_id = :ownerId and bk.status = :status " + BEFORE +
+            "union all " +
+            "select " + COLUMNS + " from bookings_archive bk join items i on i.id = bk.item_id " +
+            "where i.owner_id = :ownerId and bk.status = :status " + BEFORE + ") b " +
+            "order by b.start_time desc, b.id desc",
+            nativeQuery = true)
+    List<Booking> findHistoryByItemOwnerAndStatus(@Param("ownerId") long userId, @Param("status") String status,
+                                                  @Param("cursorStart") LocalDateTime cursorStart,
+                                                  @Param("cursorId") long cursorId,
+                                                  Pageable pageable);
+
+    @Query(value = STATE_COUNTS + "from (" +
+            "select bk.start_time, bk.end_time, bk.status from bookings bk where bk.booker_id = :userId " +
+            "union all " +
+            "select bk.start_time, bk.end_time, bk.status from bookings_archive bk where bk.booker_id = :userId) b",
+            nativeQuery = true)
+    BookingStateCounts countByBookerStates(@Param("userId") long userId, @Param("now") LocalDateTime now);
+
+    @Query(value = STATE_COUNTS + "from (" +
+            "select bk.start_time, bk.end_time, bk.status from bookings bk join items i on i.id = bk.item_id " +
+            "where i.owner_id = :ownerId " +
+            "union all " +
+            "select bk.start_time, bk.end_time, bk.status from bookings_archive bk " +
+            "join items i on i.id = bk.item_id " +
+            "where i.owner_id = :ownerId) b",
+            nativeQuery = true)
+    BookingStateCounts countByItemOwnerStates(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now);
+
+    List<Booking> findByItemIdAndStatusInAndEndAfter(long itemId, Collection<BookingStatus> statuses,
+                                                     LocalDateTime now);
+
+    List<Booking> findByItemIdInAndStatusInAndEndAfter(Collection<Long> itemIds, Collection<BookingStatus> statuses,
+                                                       LocalDateTime now);
+
+    /**
+     * Locks the owner's bookings that are still in {@code status}, in id order, so a following
+     * {@link #updateStatus} changes exactly these rows.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select booking from Booking booking " +
+            "join fetch booking.item item " +
+            "join fetch booking.booker " +
+            "where booking.id in ?2 " +
+            "and booking.status = ?3 " +
+            "and item.owner.id = ?1 " +
+            "order by booking.id")
+    List<Booking> lockByOwnerAndStatus(long ownerId, Collection<Long> ids, BookingStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select booking from Booking booking " +
+            "join fetch booking.item item " +
+            "join fetch booking.booker " +
+            "where item.id = ?2 " +
+            "and booking.status = ?3 " +
+            "and item.owner.id = ?1 " +
+            "order by booking.id")
+    List<Booking> lockByOwnerItemAndStatus(long ownerId, long itemId, BookingStatus status);
+
+    @Query("select distinct booking.item.id from Booking booking " +
+            "where booking.item.id in ?1 " +
+            "and booking.status = ?2 " +
+            "and booking.start < ?4 " +
+            "and booking.end > ?3")
+    Set<Long> findItemIdsBookedBetween(Collection<Long> itemIds, BookingStatus status,
+                                       LocalDateTime start, LocalDateTime end);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking booking set booking.status = ?4 " +
+            "where booking.id in ?2 " +
+            "and booking.status = ?3 " +
+            "and booking.item.id in (select item.id from Item item where item.owner.id = ?1)")
+    int updateStatus(long ownerId, Collection<Long> ids, BookingStatus current, BookingStatus status);
+
+    @Query(value = "select exists(select 1 from bookings bk " +
+            "where bk.booker_id = :bookerId and bk.item_id = :itemId and bk.end_time < :now) " +
+            "or exists(select 1 from bookings_archive bk " +
+            "where bk.booker_id = :bookerId and bk.item_id = :itemId and bk.end_time < :now)",
+            nativeQuery = true)
+    boolean existsPastBooking(@Param("bookerId") long bookerId, @Param("itemId") long itemId,
+                              @Param("now") LocalDateTime now);
+
+    @Query(value = "select l.id, l.start_time, l.end_time, l.item_id, l.booker_id, l.status from (" +
+            "select h.*, row_number() over (partition by h.item_id order by h.start_time desc, h.id desc) as rn " +
+            "from (select " + COLUMNS + " from bookings bk join items i on i.id = bk.item_id " +
+            "where bk.item_id in (:ids) and i.owner_id = :userId and bk.end_time < :now " +
+            "union all " +
+            "select " + COLUMNS + " from bookings_archive bk join items i on i.id = bk.item_id " +
+            "where bk.item_id in (:ids) and i.owner_id = :userId and bk.end_time < :now) h) l " +
+            "where l.rn = 1 " +
+            "union all " +
+            "select n.id, n.start_time, n.end_time, n.item_id, n.booker_id, n.status from (" +
+            "select " + COLUMNS + ", row_number() over " +
+            "(partition by bk.item_id order by bk.start_time asc, bk.id asc) as rn " +
+            "from bookings bk join items i on i.id = bk.item_id " +
+            "where bk.item_id in (:ids) and i.owner_id = :userId and bk.start_time > :now) n " +
+            "where n.rn = 1",
+            nativeQuery = true)
+    List<Booking> findLastAndNextBookings(@Param("ids") List<Long> ids,
+                                          @Param("now") LocalDateTime now,
+                                          @Param("userId") long userId);
 }
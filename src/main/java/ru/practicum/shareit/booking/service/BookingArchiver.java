@@ -0,0 +1,81 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.repository.ItemVersionRepository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves bookings that ended long ago from BOOKINGS into BOOKINGS_ARCHIVE, one batch per transaction.
+ * WAITING bookings are never archived, so the WAITING listings only ever read the hot table. Owner item tags count
+ * bookings in the hot table only, so each batch bumps the aggregate version of the items it moves.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingArchiver {
+    private static final String COLUMNS = "id, start_time, end_time, item_id, booker_id, status";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ItemVersionRepository itemVersionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+
+    public BookingArchiver(NamedParameterJdbcTemplate jdbcTemplate,
+                           ItemVersionRepository itemVersionRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${shareit.archive.retention:P30D}") Duration retention,
+                           @Value("${shareit.archive.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.itemVersionRepository = itemVersionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${shareit.archive.interval:PT10M}",
+            fixedDelayString = "${shareit.archive.interval:PT10M}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        long started = System.currentTimeMillis();
+        long moved = 0;
+        int batch;
+        do {
+            Integer count = transactionTemplate.execute(status -> moveBatch(cutoff));
+            batch = count == null ? 0 : count;
+            moved += batch;
+        } while (batch == batchSize);
+        if (moved > 0) {
+            log.info("Archived {} bookings ended before {} in {} ms", moved, cutoff,
+                    System.currentTimeMillis() - started);
+        }
+    }
+
+    private int moveBatch(LocalDateTime cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList("select id from bookings " +
+                        "where end_time < :cutoff and status <> 'WAITING' order by end_time limit :limit",
+                new MapSqlParameterSource()
+                        .addValue("cutoff", Timestamp.valueOf(cutoff))
+                        .addValue("limit", batchSize),
+                Long.class);
+        if (ids.isEmpty()) return 0;
+        itemVersionRepository.bumpBooked(ids);
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        jdbcTemplate.update("insert into bookings_archive (" + COLUMNS + ") " +
+                "select " + COLUMNS + " from bookings where id in (:ids)", params);
+        jdbcTemplate.update("delete from bookings where id in (:ids)", params);
+        return ids.size();
+    }
+}
@@ -0,0 +1,218 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Per-item timeline of WAITING and APPROVED bookings used to reject overlapping bookings without a range scan.
+ * Reservations never overlap each other, so the interval starting last before the requested end also ends last and
+ * is the only one to check, in O(log n). Bookings loaded from the database may overlap, and a timeline that loaded
+ * such rows walks every interval starting before the requested end instead.
+ * Timelines left empty are evicted periodically; a retired timeline is never reused, so a reservation racing the
+ * eviction retries on a fresh one.
+ * Timelines are guarded by explicit locks rather than monitors, since the first reservation loads from the database
+ * and a virtual thread blocked on JDBC inside a monitor would pin its carrier.
+ */
+@Component
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingIntervalIndex {
+    private static final List<BookingStatus> HOLDING = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final ConcurrentMap<Long, Timeline> timelines = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public void preload(Collection<Long> itemIds) {
+        Map<Long, Timeline> missing = new LinkedHashMap<>();
+        for (Long itemId : itemIds) {
+            Timeline timeline = timelines.computeIfAbsent(itemId, id -> new Timeline());
+            if (!timeline.loaded) missing.put(itemId, timeline);
+        }
+        if (missing.isEmpty()) return;
+        Map<Long, List<Booking>> holding = bookingRepository.findByItemIdInAndStatusInAndEndAfter(missing.keySet(),
+                        HOLDING, LocalDateTime.now()).stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        missing.forEach((itemId, timeline) -> timeline.locked(() -> {
+            if (!timeline.loaded) fill(timeline, holding.getOrDefault(itemId, List.of()));
+        }));
+    }
+
+    public Interval reserve(long itemId, LocalDateTime start, LocalDateTime end) {
+        Interval interval = new Interval(start, end, sequence.incrementAndGet());
+        while (true) {
+            Timeline timeline = timelines.computeIfAbsent(itemId, id -> new Timeline());
+            timeline.lock.lock();
+            try {
+                if (timeline.retired) continue;
+                load(itemId, timeline);
+                timeline.prune(LocalDateTime.now());
+                if (timeline.overlaps(start, end)) {
+                    throw new BadRequestException("Item is already booked for this time");
+                }
+                timeline.intervals.add(interval);
+            } finally {
+                timeline.lock.unlock();
+            }
+            onRollback(() -> timeline.locked(() -> timeline.remove(interval)));
+            return interval;
+        }
+    }
+
+    public void bind(long itemId, Interval interval, long bookingId) {
+        Timeline timeline = timelines.get(itemId);
+        if (timeline == null) return;
+        timeline.locked(() -> {
+            if (!timeline.intervals.contains(interval)) return;
+            interval.bookingId = bookingId;
+            timeline.byBooking.put(bookingId, interval);
+        });
+    }
+
+    public void release(long itemId, long bookingId) {
+        Timeline timeline = timelines.get(itemId);
+        if (timeline == null) return;
+        onCommit(() -> timeline.locked(() -> {
+            Interval interval = timeline.byBooking.get(bookingId);
+            if (interval != null) timeline.remove(interval);
+        }));
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.index-eviction-interval:PT10M}")
+    public void evictIdle() {
+        LocalDateTime now = LocalDateTime.now();
+        timelines.forEach((itemId, timeline) -> timeline.locked(() -> {
+            timeline.prune(now);
+            if (!timeline.intervals.isEmpty()) return;
+            timeline.retired = true;
+            timelines.remove(itemId, timeline);
+        }));
+    }
+
+    int size() {
+        return timelines.size();
+    }
+
+    int held(long itemId) {
+        Timeline timeline = timelines.get(itemId);
+        return timeline == null ? 0 : timeline.intervals.size();
+    }
+
+    private void load(long itemId, Timeline timeline) {
+        if (timeline.loaded) return;
+        fill(timeline, bookingRepository.findByItemIdAndStatusInAndEndAfter(itemId, HOLDING, LocalDateTime.now()));
+    }
+
+    private void fill(Timeline timeline, List<Booking> bookings) {
+        for (Booking booking : bookings) {
+            Interval interval = new Interval(booking.getStart(), booking.getEnd(), sequence.incrementAndGet());
+            interval.bookingId = booking.getId();
+            if (timeline.overlaps(interval.getStart(), interval.getEnd())) timeline.overlapping = true;
+            timeline.intervals.add(interval);
+            timeline.byBooking.put(booking.getId(), interval);
+        }
+        timeline.loaded = true;
+    }
+
+    private static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) action.run();
+            }
+        });
+    }
+
+    private static void onCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Interval {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final long sequence;
+        private Long bookingId;
+    }
+
+    private static class Timeline {
+        private final TreeSet<Interval> intervals = new TreeSet<>(Comparator.comparing(Interval::getStart)
+                .thenComparingLong(Interval::getSequence));
+        private final Map<Long, Interval> byBooking = new HashMap<>();
+        private final Lock lock = new ReentrantLock();
+        private boolean loaded;
+        private boolean retired;
+        private boolean overlapping;
+
+        void locked(Runnable action) {
+            lock.lock();
+            try {
+                action.run();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            Interval bound = new Interval(end, end, Long.MIN_VALUE);
+            if (!overlapping) {
+                Interval previous = intervals.lower(bound);
+                return previous != null && previous.getEnd().isAfter(start);
+            }
+            for (Interval interval : intervals.headSet(bound)) {
+                if (interval.getEnd().isAfter(start)) return true;
+            }
+            return false;
+        }
+
+        void prune(LocalDateTime now) {
+            Iterator<Interval> started = intervals.headSet(new Interval(now, now, Long.MAX_VALUE)).iterator();
+            while (started.hasNext()) {
+                Interval interval = started.next();
+                if (!interval.getEnd().isBefore(now)) continue;
+                started.remove();
+                if (interval.bookingId != null) byBooking.remove(interval.bookingId);
+            }
+        }
+
+        void remove(Interval interval) {
+            intervals.remove(interval);
+            if (interval.bookingId != null) byBooking.remove(interval.bookingId, interval);
+        }
+    }
+}
@@ -1,18 +1,32 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingBulkStatusDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 
 import java.util.List;
 
 public interface BookingService {
     BookingResponseDto create(long id, BookingDto bookingDto);
 
+    List<BookingBatchResultDto> createBatch(long bookerId, List<BookingDto> bookingDtos);
+
     BookingResponseDto changeStatus(long userId, long bookingId, boolean approved);
 
+    List<BookingResponseDto> changeStatuses(long userId, BookingBulkStatusDto bulk, boolean approved);
+
     BookingResponseDto getBookingInfo(long userId, long bookingId);
 
-    List<BookingResponseDto> getByBooker(long userId, String state);
+    List<BookingResponseDto> getByBooker(long userId, String state, int from, int size, String cursor);
+
+    List<BookingResponseDto> getByOwner(long userId, String state, int from, int size, String cursor);
+
+    BookingSummaryDto getBookerSummary(long userId);
+
+    BookingSummaryDto getOwnerSummary(long userId);
 
-    List<BookingResponseDto> getByOwner(long userId, String state);
+    SseEmitter subscribe(long userId);
 }
@@ -2,12 +2,22 @@ package ru.practicum.shareit.booking.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.BookingCursor;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingBulkStatusDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventPublisher;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
@@ -15,12 +25,21 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UnsupportedStateException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemVersionRepository;
+import ru.practicum.shareit.paging.OffsetPageRequest;
+import ru.practicum.shareit.user.Create;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,6 +50,13 @@ public class BookingServiceImpl implements BookingService {
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemVersionRepository itemVersionRepository;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingEventPublisher bookingEventPublisher;
+    @Value("${shareit.booking.batch-limit:200}")
+    private int batchLimit;
 
     @Override
     @Transactional
@@ -41,18 +67,78 @@ public class BookingServiceImpl implements BookingService {
         User user = userRepository.findById(bookerId).orElseThrow(() -> {
             throw new NotFoundException("user");
         });
-        if (item.getOwner().getId() == bookerId) throw new NotFoundException("item");
-        if (!item.getAvailable()) throw new BadRequestException("Item not available");
-        if (bookingDto.getEnd().isBefore(bookingDto.getStart())) {
-            throw new BadRequestException("Wrong time");
-        }
+        checkBookable(bookerId, item, bookingDto);
+        BookingIntervalIndex.Interval interval = bookingIntervalIndex.reserve(item.getId(),
+                bookingDto.getStart(), bookingDto.getEnd());
         bookingDto.setStatus(BookingStatus.WAITING);
         Booking booking = bookingRepository.save(BookingMapper.toBooking(bookingDto, item, user));
+        bookingIntervalIndex.bind(item.getId(), interval, booking.getId());
+        itemVersionRepository.bump(List.of(item.getId()));
         BookingResponseDto bookingDtoResponse = BookingMapper.toBookingDtoResponse(booking);
+        publish(booking, bookingDtoResponse);
         log.info("Item created");
         return bookingDtoResponse;
     }
 
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> createBatch(long bookerId, List<BookingDto> bookingDtos) {
+        if (bookingDtos.size() > batchLimit) {
+            throw new BadRequestException("Batch is limited to " + batchLimit + " bookings");
+        }
+        User user = userRepository.findById(bookerId).orElseThrow(() -> {
+            throw new NotFoundException("user");
+        });
+        Set<Long> itemIds = bookingDtos.stream()
+                .filter(Objects::nonNull)
+                .map(BookingDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        bookingIntervalIndex.preload(items.keySet());
+        List<BookingBatchResultDto> results = new ArrayList<>(bookingDtos.size());
+        List<BookingBatchResultDto> acceptedResults = new ArrayList<>();
+        List<BookingIntervalIndex.Interval> intervals = new ArrayList<>();
+        List<Booking> accepted = new ArrayList<>();
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingDto bookingDto = bookingDtos.get(i);
+            BookingBatchResultDto result = new BookingBatchResultDto(i, null, null);
+            results.add(result);
+            try {
+                if (bookingDto == null) throw new BadRequestException("Booking must not be null");
+                Set<ConstraintViolation<BookingDto>> violations = validator.validate(bookingDto, Create.class);
+                if (!violations.isEmpty()) {
+                    ConstraintViolation<BookingDto> violation = violations.iterator().next();
+                    throw new BadRequestException(violation.getPropertyPath() + " " + violation.getMessage());
+                }
+                Item item = items.get(bookingDto.getItemId());
+                if (item == null) throw new NotFoundException("Item");
+                checkBookable(bookerId, item, bookingDto);
+                intervals.add(bookingIntervalIndex.reserve(item.getId(), bookingDto.getStart(), bookingDto.getEnd()));
+                bookingDto.setId(null);
+                bookingDto.setStatus(BookingStatus.WAITING);
+                accepted.add(BookingMapper.toBooking(bookingDto, item, user));
+                acceptedResults.add(result);
+            } catch (NotFoundException | BadRequestException e) {
+                result.setError(e.getMessage());
+            }
+        }
+        List<Booking> saved = bookingRepository.saveAll(accepted);
+        for (int i = 0; i < saved.size(); i++) {
+            Booking booking = saved.get(i);
+            bookingIntervalIndex.bind(booking.getItem().getId(), intervals.get(i), booking.getId());
+            BookingResponseDto response = BookingMapper.toBookingDtoResponse(booking);
+            acceptedResults.get(i).setBooking(response);
+            publish(booking, response);
+        }
+        itemVersionRepository.bump(saved.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet()));
+        log.info("Batch of {} bookings: {} created", bookingDtos.size(), saved.size());
+        return results;
+    }
+
     @Override
     @Transactional
     public BookingResponseDto changeStatus(long userId, long bookingId, boolean approved) {
@@ -64,16 +150,64 @@ public class BookingServiceImpl implements BookingService {
         if (booking.getStatus() == BookingStatus.APPROVED)
             throw new BadRequestException("You can't change status after it is approved");
         if (approved) {
+            if (booking.getStatus() == BookingStatus.REJECTED) {
+                BookingIntervalIndex.Interval interval = bookingIntervalIndex.reserve(item.getId(),
+                        booking.getStart(), booking.getEnd());
+                bookingIntervalIndex.bind(item.getId(), interval, booking.getId());
+            }
             booking.setStatus(BookingStatus.APPROVED);
-        } else booking.setStatus(BookingStatus.REJECTED);
-        return BookingMapper.toBookingDtoResponse(bookingRepository.save(booking));
+        } else {
+            if (booking.getStatus() != BookingStatus.REJECTED) {
+                bookingIntervalIndex.release(item.getId(), booking.getId());
+            }
+            booking.setStatus(BookingStatus.REJECTED);
+        }
+        itemVersionRepository.bump(List.of(item.getId()));
+        BookingResponseDto response = BookingMapper.toBookingDtoResponse(bookingRepository.save(booking));
+        publish(booking, response);
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public List<BookingResponseDto> changeStatuses(long userId, BookingBulkStatusDto bulk, boolean approved) {
+        boolean byIds = bulk.getBookingIds() != null && !bulk.getBookingIds().isEmpty();
+        if (byIds == (bulk.getItemId() != null)) throw new BadRequestException("Pass either booking ids or an item id");
+        if (byIds && bulk.getBookingIds().size() > batchLimit) {
+            throw new BadRequestException("Batch is limited to " + batchLimit + " bookings");
+        }
+        List<Booking> bookings = byIds
+                ? bookingRepository.lockByOwnerAndStatus(userId, bulk.getBookingIds(), BookingStatus.WAITING)
+                : bookingRepository.lockByOwnerItemAndStatus(userId, bulk.getItemId(), BookingStatus.WAITING);
+        if (bookings.isEmpty()) return List.of();
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        bookingRepository.updateStatus(userId, bookings.stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList()), BookingStatus.WAITING, status);
+        bookings.forEach(booking -> booking.setStatus(status));
+        if (!approved) {
+            bookings.forEach(booking -> bookingIntervalIndex.release(booking.getItem().getId(), booking.getId()));
+        }
+        itemVersionRepository.bump(bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet()));
+        log.info("Owner {} changed {} bookings to {}", userId, bookings.size(), status);
+        List<BookingResponseDto> responses = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            BookingResponseDto response = BookingMapper.toBookingDtoResponse(booking);
+            publish(booking, response);
+            responses.add(response);
+        }
+        return responses;
     }
 
     @Override
     public BookingResponseDto getBookingInfo(long userId, long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> {
-            throw new NotFoundException("Booking");
-        });
+        Booking booking = bookingRepository.findById(bookingId)
+                .or(() -> bookingRepository.findArchivedById(bookingId))
+                .orElseThrow(() -> {
+                    throw new NotFoundException("Booking");
+                });
         Item item = booking.getItem();
         if (booking.getBooker().getId() == userId || item.getOwner().getId() == userId) {
             return BookingMapper.toBookingDtoResponse(booking);
@@ -81,29 +215,40 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingResponseDto> getByBooker(long userId, String state) {
+    public List<BookingResponseDto> getByBooker(long userId, String state, int from, int size, String cursor) {
         userRepository.findById(userId).orElseThrow(() -> {
             throw new NotFoundException("User");
         });
-        List<Booking> books = new ArrayList<>();
+        Pageable page = OffsetPageRequest.of(from, size);
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> books;
         switch (state) {
             case "ALL":
-                books.addAll(bookingRepository.findAllByBookerIdOrderByStartDesc(userId));
+                BookingCursor all = position(cursor, BookingCursor.headDesc());
+                books = bookingRepository.findAllByBookerIdOrderByStartDescIdDesc(userId,
+                        all.getStart(), all.getId(), page);
                 break;
             case "CURRENT":
-                books.addAll(bookingRepository.findByBookerCurrent(userId, LocalDateTime.now()));
+                BookingCursor current = position(cursor, BookingCursor.headAsc());
+                books = bookingRepository.findByBookerCurrent(userId, now, current.getStart(), current.getId(), page);
                 break;
             case "PAST":
-                books.addAll(bookingRepository.findByBookerPast(userId, LocalDateTime.now()));
+                BookingCursor past = position(cursor, BookingCursor.headAsc());
+                books = bookingRepository.findByBookerPast(userId, now, past.getStart(), past.getId(), page);
                 break;
             case "FUTURE":
-                books.addAll(bookingRepository.findByBookerFuture(userId, LocalDateTime.now()));
+                BookingCursor future = position(cursor, BookingCursor.headDesc());
+                books = bookingRepository.findByBookerFuture(userId, now, future.getStart(), future.getId(), page);
                 break;
             case "WAITING":
-                books.addAll(bookingRepository.findByBookerAndStatus(userId, BookingStatus.WAITING));
+                BookingCursor waiting = position(cursor, BookingCursor.headDesc());
+                books = bookingRepository.findByBookerAndStatus(userId, BookingStatus.WAITING,
+                        waiting.getStart(), waiting.getId(), page);
                 break;
             case "REJECTED":
-                books.addAll(bookingRepository.findByBookerAndStatus(userId, BookingStatus.REJECTED));
+                BookingCursor rejected = position(cursor, BookingCursor.headDesc());
+                books = bookingRepository.findHistoryByBookerAndStatus(userId, BookingStatus.REJECTED.name(),
+                        rejected.getStart(), rejected.getId(), page);
                 break;
             default:
                 throw new UnsupportedStateException("Unknown state: " + state);
@@ -114,29 +259,42 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingResponseDto> getByOwner(long userId, String state) {
+    public List<BookingResponseDto> getByOwner(long userId, String state, int from, int size, String cursor) {
         userRepository.findById(userId).orElseThrow(() -> {
             throw new NotFoundException("User");
         });
-        List<Booking> books = new ArrayList<>();
+        Pageable page = OffsetPageRequest.of(from, size);
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> books;
         switch (state) {
             case "ALL":
-                books.addAll(bookingRepository.findByItemOwnerIdOrderByStartDesc(userId));
+                BookingCursor all = position(cursor, BookingCursor.headDesc());
+                books = bookingRepository.findByItemOwnerIdOrderByStartDescIdDesc(userId,
+                        all.getStart(), all.getId(), page);
                 break;
             case "CURRENT":
-                books.addAll(bookingRepository.findByItemOwnerCurrent(userId, LocalDateTime.now()));
+                BookingCursor current = position(cursor, BookingCursor.headAsc());
+                books = bookingRepository.findByItemOwnerCurrent(userId, now,
+                        current.getStart(), current.getId(), page);
                 break;
             case "PAST":
-                books.addAll(bookingRepository.findByItemOwnerPast(userId, LocalDateTime.now()));
+                BookingCursor past = position(cursor, BookingCursor.headDesc());
+                books = bookingRepository.findByItemOwnerPast(userId, now, past.getStart(), past.getId(), page);
                 break;
             case "FUTURE":
-                books.addAll(bookingRepository.findByItemOwnerFuture(userId, LocalDateTime.now()));
+                BookingCursor future = position(cursor, BookingCursor.headDesc());
+                books = bookingRepository.findByItemOwnerFuture(userId, now,
+                        future.getStart(), future.getId(), page);
                 break;
             case "WAITING":
-                books.addAll(bookingRepository.findByItemOwnerAndStatus(userId, BookingStatus.WAITING));
+                BookingCursor waiting = position(cursor, BookingCursor.headDesc());
+                books = bookingRepository.findByItemOwnerAndStatus(userId, BookingStatus.WAITING,
+                        waiting.getStart(), waiting.getId(), page);
                 break;
             case "REJECTED":
-                books.addAll(bookingRepository.findByItemOwnerAndStatus(userId, BookingStatus.REJECTED));
+                BookingCursor rejected = position(cursor, BookingCursor.headDesc());
+                books = bookingRepository.findHistoryByItemOwnerAndStatus(userId, BookingStatus.REJECTED.name(),
+                        rejected.getStart(), rejected.getId(), page);
                 break;
             default:
                 throw new UnsupportedStateException("Unknown state: " + state);
@@ -146,4 +304,46 @@ public class BookingServiceImpl implements BookingService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public BookingSummaryDto getBookerSummary(long userId) {
+        userRepository.findById(userId).orElseThrow(() -> {
+            throw new NotFoundException("User");
+        });
+        return BookingMapper.toBookingSummaryDto(bookingRepository.countByBookerStates(userId, LocalDateTime.now()));
+    }
+
+    @Override
+    public BookingSummaryDto getOwnerSummary(long userId) {
+        userRepository.findById(userId).orElseThrow(() -> {
+            throw new NotFoundException("User");
+        });
+        return BookingMapper.toBookingSummaryDto(bookingRepository.countByItemOwnerStates(userId,
+                LocalDateTime.now()));
+    }
+
+    @Override
+    public SseEmitter subscribe(long userId) {
+        userRepository.findById(userId).orElseThrow(() -> {
+            throw new NotFoundException("User");
+        });
+        return bookingEventPublisher.subscribe(userId);
+    }
+
+    private void publish(Booking booking, BookingResponseDto response) {
+        eventPublisher.publishEvent(new BookingEvent(booking.getBooker().getId(),
+                booking.getItem().getOwner().getId(), response));
+    }
+
+    private void checkBookable(long bookerId, Item item, BookingDto bookingDto) {
+        if (item.getOwner().getId() == bookerId) throw new NotFoundException("item");
+        if (!item.getAvailable()) throw new BadRequestException("Item not available");
+        if (bookingDto.getStart() == null || bookingDto.getEnd() == null
+                || bookingDto.getEnd().isBefore(bookingDto.getStart())) {
+            throw new BadRequestException("Wrong time");
+        }
+    }
+
+    private static BookingCursor position(String cursor, BookingCursor head) {
+        return cursor == null || cursor.isBlank() ? head : BookingCursor.decode(cursor);
+    }
 }
@@ -2,6 +2,7 @@ package ru.practicum.shareit.comment;
 
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.repository.ItemCommentView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -20,4 +21,11 @@ public class CommentMapper {
                 comment.getAuthor().getName(),
                 comment.getCreated());
     }
+
+    public static CommentDto toCommentDto(ItemCommentView comment) {
+        return new CommentDto(comment.getId(),
+                comment.getText(),
+                comment.getAuthorName(),
+                comment.getCreated());
+    }
 }
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.comment.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,7 +12,24 @@ import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    @Query("select comment from Comment comment " +
-            "where comment.item.id in :ids")
-    List<Comment> findAllComments(@Param("ids") List<Long> ids);
+    /**
+     * Latest {@code limit} comments of each item, newest first, with the item's comment count. Per item the
+     * (item_id, id) index yields the id just past the slice and the count; the join then reads only the slice,
+     * so the work is bounded by the number of items times the limit rather than by all their comments.
+     */
+    @Query(value = "select c.id as id, c.text as text, c.item_id as itemId, u.name as authorName, " +
+            "c.created as created, i.total as total " +
+            "from (select it.id, " +
+            "(select count(*) from comments cc where cc.item_id = it.id) as total, " +
+            "coalesce((select cb.id from comments cb where cb.item_id = it.id order by cb.id desc " +
+            "offset :limit rows fetch next 1 rows only), 0) as boundary " +
+            "from items it where it.id in (:ids)) i " +
+            "join comments c on c.item_id = i.id and c.id > i.boundary " +
+            "join users u on u.id = c.author_id " +
+            "order by c.item_id, c.id desc",
+            nativeQuery = true)
+    List<ItemCommentView> findLatestComments(@Param("ids") List<Long> ids, @Param("limit") int limit);
+
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findByItemIdAndIdLessThanOrderByIdDesc(long itemId, long beforeId, Pageable pageable);
 }
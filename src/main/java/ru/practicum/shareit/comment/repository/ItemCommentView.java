@@ -0,0 +1,17 @@
+package ru.practicum.shareit.comment.repository;
+
+import java.time.LocalDateTime;
+
+public interface ItemCommentView {
+    Long getId();
+
+    String getText();
+
+    Long getItemId();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+
+    Long getTotal();
+}
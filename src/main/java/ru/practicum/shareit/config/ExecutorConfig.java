@@ -0,0 +1,60 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import ru.practicum.shareit.metrics.SqlStatementCounter;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Primary
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor itemViewExecutor(@Value("${shareit.item-view.threads:4}") int threads,
+                                                   @Value("${shareit.item-view.queue:64}") int queue) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queue);
+        executor.setThreadNamePrefix("item-view-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(task -> {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            SqlStatementCounter.Stats stats = SqlStatementCounter.current();
+            return () -> {
+                RequestAttributes previousAttributes = RequestContextHolder.getRequestAttributes();
+                RequestContextHolder.setRequestAttributes(attributes);
+                SqlStatementCounter.Stats previousStats = SqlStatementCounter.attach(stats);
+                try {
+                    task.run();
+                } finally {
+                    SqlStatementCounter.restore(previousStats);
+                    RequestContextHolder.setRequestAttributes(previousAttributes);
+                }
+            };
+        });
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor bookingEventExecutor(@Value("${shareit.booking-events.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("booking-events-");
+        return executor;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.metrics.SqlBudgetInterceptor;
+import ru.practicum.shareit.metrics.SqlCountingDataSource;
+
+import javax.sql.DataSource;
+
+@Configuration
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SqlBudgetConfig implements WebMvcConfigurer {
+    private final SqlBudgetInterceptor sqlBudgetInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlBudgetInterceptor);
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlStatementCounting() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && "dataSource".equals(beanName)) {
+                    return new SqlCountingDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Tomcat request handling, and with it the service and repository calls, on virtual threads.
+ * Database concurrency stays bounded by the Hikari pool: surplus requests park cheaply while waiting for a
+ * connection and fail after {@code spring.datasource.hikari.connection-timeout} instead of holding a platform thread.
+ * <p>
+ * On JDK 21 a virtual thread that blocks while holding a monitor pins its carrier thread. The PostgreSQL driver
+ * managed by Boot 2.7 (42.3.x) guards its socket I/O with {@code synchronized}, so each query in flight pins a
+ * carrier and database concurrency is capped by the carrier count (the number of cores unless
+ * {@code jdk.virtualThreadScheduler.parallelism} is set), not by the pool size. HikariCP 4 hands out connections
+ * without holding monitors. The virtual-thread load benchmark records {@code jdk.VirtualThreadPinned} events and
+ * logs the frames they come from.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
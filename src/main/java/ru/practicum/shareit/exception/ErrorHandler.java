@@ -5,6 +5,8 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.validation.ConstraintViolationException;
+
 @RestControllerAdvice
 public class ErrorHandler {
     @ExceptionHandler
@@ -19,6 +21,12 @@ public class ErrorHandler {
         return new ErrorResponse("Object not available 400 ", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handlerConstraintViolation(final ConstraintViolationException e) {
+        return new ErrorResponse("Wrong request parameters 400", e.getMessage());
+    }
+
     @ExceptionHandler(UnsupportedStateException.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handlerUnsupportedState(final UnsupportedStateException e) {
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.imports;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ImportResultDto {
+    long imported;
+    long failed;
+    List<RowError> errors = new ArrayList<>();
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @ToString
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class RowError {
+        long line;
+        String error;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.imports;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class ImportRow<T> {
+    private final long line;
+    private final T value;
+    private String error;
+
+    public void reject(String error) {
+        this.error = error;
+    }
+
+    void clearRejection() {
+        this.error = null;
+    }
+
+    public boolean isRejected() {
+        return error != null;
+    }
+}
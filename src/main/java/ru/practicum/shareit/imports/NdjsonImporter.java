@@ -0,0 +1,128 @@
+package ru.practicum.shareit.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Reads newline-delimited JSON one row at a time and hands validated rows to a writer in chunks.
+ * Each chunk commits in its own transaction, so a failing chunk never rolls back the rows before it, and a chunk
+ * that fails is split until only its bad rows are rejected.
+ */
+@Slf4j
+@Component
+public class NdjsonImporter {
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public NdjsonImporter(ObjectMapper objectMapper,
+                          Validator validator,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${shareit.import.chunk-size:500}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = chunkSize;
+    }
+
+    public <T> ImportResultDto importRows(InputStream input, Class<T> type, Class<?> group,
+                                          Consumer<List<ImportRow<T>>> writer) {
+        ObjectReader reader = objectMapper.readerFor(type);
+        ImportResultDto result = new ImportResultDto();
+        List<ImportRow<T>> chunk = new ArrayList<>(chunkSize);
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long number = 0;
+            while ((line = lines.readLine()) != null) {
+                number++;
+                if (line.isBlank()) continue;
+                T value;
+                try {
+                    value = reader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    result.getErrors().add(new ImportResultDto.RowError(number, "Malformed row: " +
+                            e.getOriginalMessage()));
+                    continue;
+                }
+                if (value == null) {
+                    result.getErrors().add(new ImportResultDto.RowError(number, "Empty row"));
+                    continue;
+                }
+                Set<ConstraintViolation<T>> violations = validator.validate(value, group);
+                if (!violations.isEmpty()) {
+                    ConstraintViolation<T> violation = violations.iterator().next();
+                    result.getErrors().add(new ImportResultDto.RowError(number, violation.getPropertyPath() + " " +
+                            violation.getMessage()));
+                    continue;
+                }
+                chunk.add(new ImportRow<>(number, value));
+                if (chunk.size() >= chunkSize) flush(chunk, writer, result);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        flush(chunk, writer, result);
+        result.setFailed(result.getErrors().size());
+        log.info("Imported {} {} rows, {} failed", result.getImported(), type.getSimpleName(), result.getFailed());
+        return result;
+    }
+
+    private <T> void flush(List<ImportRow<T>> chunk, Consumer<List<ImportRow<T>>> writer, ImportResultDto result) {
+        if (chunk.isEmpty()) return;
+        write(new ArrayList<>(chunk), writer, result);
+        chunk.clear();
+    }
+
+    /**
+     * Writes the rows in one transaction. If it rolls back, each half is retried in its own transaction until the
+     * failing rows stand alone, so one bad row costs a few extra transactions instead of its whole chunk.
+     */
+    private <T> void write(List<ImportRow<T>> rows, Consumer<List<ImportRow<T>>> writer, ImportResultDto result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> writer.accept(rows));
+        } catch (DataAccessException | TransactionException e) {
+            if (rows.size() == 1) {
+                log.warn("Import row {} rolled back: {}", rows.get(0).getLine(), e.getMostSpecificCause().getMessage());
+                result.getErrors().add(new ImportResultDto.RowError(rows.get(0).getLine(), "Row rolled back: " +
+                        e.getMostSpecificCause().getMessage()));
+                return;
+            }
+            rows.forEach(ImportRow::clearRejection);
+            int middle = rows.size() / 2;
+            write(new ArrayList<>(rows.subList(0, middle)), writer, result);
+            write(new ArrayList<>(rows.subList(middle, rows.size())), writer, result);
+            return;
+        }
+        for (ImportRow<T> row : rows) {
+            if (row.isRejected()) {
+                result.getErrors().add(new ImportResultDto.RowError(row.getLine(), row.getError()));
+            } else {
+                result.setImported(result.getImported() + 1);
+            }
+        }
+    }
+}
@@ -1,49 +1,108 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.imports.ImportResultDto;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.metrics.SqlBudget;
 import ru.practicum.shareit.user.Create;
 
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
+@Validated
 @RequestMapping("/items")
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class ItemController {
 
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
+    @SqlBudget(3)
     @GetMapping
     public List<ItemBookingDto> findAll(@RequestHeader("X-Sharer-User-Id") long id) {
         return itemService.findAll(id);
     }
 
+    @SqlBudget(4)
     @GetMapping("/{itemId}")
-    public ItemBookingDto findItem(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long itemId) {
+    public ItemBookingDto findItem(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long itemId,
+                                   WebRequest request) {
+        Optional<String> tag = itemService.findItemTag(userId, itemId);
+        if (tag.isPresent() && request.checkNotModified(tag.get())) return null;
         return itemService.findItem(userId, itemId);
     }
 
+    @SqlBudget(5)
     @PostMapping
     public ItemDto create(@RequestHeader("X-Sharer-User-Id") long userId, @Validated(Create.class) @RequestBody ItemDto itemDto) {
         return itemService.create(userId, itemDto);
     }
 
+    @SqlBudget(1000)
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportResultDto importItems(@RequestHeader("X-Sharer-User-Id") long userId, InputStream body) {
+        return itemService.importItems(userId, body);
+    }
+
+    @SqlBudget(2)
     @PatchMapping("/{itemId}")
     public ItemDto update(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long itemId, @RequestBody ItemDto itemDto) {
         return itemService.update(userId, itemId, itemDto);
     }
 
+    @SqlBudget(2)
     @GetMapping("/search")
-    public List<ItemDto> searchItem(@RequestParam String text) {
-        return itemService.searchItem(text);
+    public List<ItemDto> searchItem(@RequestParam String text,
+                                    @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                    @Positive @RequestParam(defaultValue = "20") int size,
+                                    @RequestParam(required = false)
+                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                    @RequestParam(required = false)
+                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return itemService.searchItem(text, from, size, start, end);
+    }
+
+    @GetMapping(value = "/search/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamSearch(@RequestParam String text,
+                                              @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                              @Positive @RequestParam(required = false) Integer size) {
+        return out -> itemService.streamSearch(text, from, size, item -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(item));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @SqlBudget(2)
+    @GetMapping("/{itemId}/comments")
+    public List<CommentDto> findComments(@PathVariable long itemId,
+                                         @Positive @RequestParam(required = false) Long beforeId,
+                                         @Positive @RequestParam(defaultValue = "20") int size) {
+        return itemService.findComments(itemId, beforeId, size);
     }
 
+    @SqlBudget(5)
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(@RequestHeader("X-Sharer-User-Id") long userId,
                                  @PathVariable long itemId,
@@ -5,6 +5,7 @@ import lombok.Setter;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.ArrayList;
@@ -17,16 +18,19 @@ public class ItemMapper {
         return new ItemDto(item.getId(),
                 item.getName(),
                 item.getDescription(),
-                item.getAvailable()
+                item.getAvailable(),
+                item.getRequest() == null ? null : item.getRequest().getId()
         );
     }
 
-    public static Item toItem(ItemDto itemDto, User user) {
-        return new Item(itemDto.getId(),
+    public static Item toItem(ItemDto itemDto, User user, ItemRequest request) {
+        return new Item(itemDto.getId() == 0 ? null : itemDto.getId(),
                 itemDto.getName(),
                 itemDto.getDescription(),
                 itemDto.getAvailable(),
-                user);
+                user,
+                request,
+                null);
     }
 
     public static ItemBookingDto toItemDtoBooking(Item item) {
@@ -36,7 +40,8 @@ public class ItemMapper {
                 item.getAvailable(),
                 null,
                 null,
-                new ArrayList<>()
+                new ArrayList<>(),
+                0
         );
     }
 }
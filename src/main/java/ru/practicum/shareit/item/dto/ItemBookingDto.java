@@ -20,4 +20,5 @@ public class ItemBookingDto {
     BookingDto lastBooking;
     BookingDto nextBooking;
     List<CommentDto> comments;
+    long commentsTotal;
 }
@@ -20,4 +20,5 @@ public class ItemDto {
     String description;
     @NotNull(groups = Create.class)
     Boolean available;
+    Long requestId;
 }
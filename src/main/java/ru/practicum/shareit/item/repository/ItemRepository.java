@@ -1,19 +1,52 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    @Query("select item from Item item where item.owner.id = ?1 order by item.id")
     List<Item> findAllByOwnerIdOrderByIdAsc(long userId);
 
+    List<Item> findAllByAvailableTrue();
+
+    @Query("select item from Item item where item.request.id in ?1 order by item.id")
+    List<Item> findAllByRequestIdInOrderByIdAsc(Collection<Long> requestIds);
+
+    @Query("select item from Item item " +
+            "where item.available = true " +
+            "and (lower(item.name) like %?1% " +
+            "or lower(item.description) like %?1%) " +
+            "order by item.id")
+    List<Item> searchByText(String text, Pageable pageable);
+
+    @Query("select item from Item item " +
+            "where item.available = true " +
+            "and (lower(item.name) like %?1% " +
+            "or lower(item.description) like %?1%) " +
+            "and not exists (select booking.id from Booking booking " +
+            "where booking.item = item " +
+            "and booking.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "and booking.start < ?3 " +
+            "and booking.end > ?2) " +
+            "order by item.id")
+    List<Item> searchFreeByText(String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "100"))
     @Query("select item from Item item " +
             "where item.available = true " +
             "and (lower(item.name) like %?1% " +
-            "or lower(item.description) like %?1%)")
-    List<Item> searchByText(String text);
+            "or lower(item.description) like %?1%) " +
+            "order by item.id")
+    Stream<Item> streamByText(String text, Pageable pageable);
 }
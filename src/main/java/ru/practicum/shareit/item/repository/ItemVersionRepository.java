@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Versions behind item ETags. AGGREGATE_VERSION is deliberately unmapped and written over plain JDBC,
+ * so bumping it on every booking or comment neither dirties nor evicts cached Item entities.
+ */
+@Repository
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemVersionRepository {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void bump(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) return;
+        jdbcTemplate.update("update items set aggregate_version = aggregate_version + 1 where id in (:ids)",
+                new MapSqlParameterSource("ids", itemIds));
+    }
+
+    /**
+     * Bumps the items of the given bookings; run before the bookings leave the hot table.
+     */
+    public void bumpBooked(Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) return;
+        jdbcTemplate.update("update items set aggregate_version = aggregate_version + 1 " +
+                        "where id in (select b.item_id from bookings b where b.id in (:ids))",
+                new MapSqlParameterSource("ids", bookingIds));
+    }
+
+    /**
+     * Bumps every item whose view shows a comment by the author, e.g. after the author is renamed.
+     */
+    public void bumpCommentedBy(long authorId) {
+        jdbcTemplate.update("update items set aggregate_version = aggregate_version + 1 " +
+                        "where id in (select c.item_id from comments c where c.author_id = :authorId)",
+                new MapSqlParameterSource("authorId", authorId));
+    }
+
+    public Optional<String> findTag(long itemId, long userId, LocalDateTime now) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", itemId)
+                .addValue("now", Timestamp.valueOf(now));
+        List<String> tags = jdbcTemplate.query("select i.owner_id, i.version, i.aggregate_version, " +
+                "(select count(*) from bookings b where b.item_id = i.id and b.start_time <= :now) as started, " +
+                "(select count(*) from bookings b where b.item_id = i.id and b.end_time < :now) as ended " +
+                "from items i where i.id = :id", params, (rs, rowNum) -> {
+                    String tag = "item-" + itemId + "-" + rs.getLong("version") + "-" + rs.getLong("aggregate_version");
+                    if (rs.getLong("owner_id") != userId) return tag;
+                    return tag + "-" + rs.getLong("started") + "-" + rs.getLong("ended");
+                });
+        return tags.stream().findFirst();
+    }
+}
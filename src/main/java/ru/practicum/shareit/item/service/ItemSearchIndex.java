@@ -0,0 +1,203 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over item names and descriptions. Every one- and two-character substring is posted too,
+ * so queries shorter than a trigram are answered from a single posting list instead of a scan of all documents.
+ * Documents of unavailable items are kept without postings, so a stale bulk load never resurrects them.
+ */
+@Component
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::getScore)
+            .thenComparingLong(match -> -match.getDocument().getId());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private volatile boolean loaded;
+
+    public List<ItemDto> search(String text, int limit, Supplier<Collection<ItemDto>> loader) {
+        if (!loaded) load(loader);
+        return toItemDtos(top(text.toLowerCase(), limit, null));
+    }
+
+    /**
+     * Hands all matches to {@code chunk} in rank order, {@code chunkSize} at a time, until it returns false. Each
+     * chunk is a fresh top-N pass over the candidates ranked after the previous chunk, taken under the read lock
+     * but not held across the callback, so memory stays bounded by the chunk size however many items match.
+     */
+    public void scan(String text, int chunkSize, Supplier<Collection<ItemDto>> loader,
+                     Predicate<List<ItemDto>> chunk) {
+        if (!loaded) load(loader);
+        String query = text.toLowerCase();
+        Match last = null;
+        while (true) {
+            List<Match> ranked = top(query, chunkSize, last);
+            if (ranked.isEmpty() || !chunk.test(toItemDtos(ranked)) || ranked.size() < chunkSize) return;
+            last = ranked.get(ranked.size() - 1);
+        }
+    }
+
+    public void index(ItemDto item) {
+        lock.writeLock().lock();
+        try {
+            put(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load(Supplier<Collection<ItemDto>> loader) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) return;
+            for (ItemDto item : loader.get()) {
+                if (!documents.containsKey(item.getId())) put(item);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(ItemDto item) {
+        Document previous = documents.remove(item.getId());
+        if (previous != null && previous.isAvailable()) {
+            for (String gram : previous.grams()) {
+                Set<Long> ids = postings.get(gram);
+                ids.remove(previous.getId());
+                if (ids.isEmpty()) postings.remove(gram);
+            }
+        }
+        Document document = new Document(item.getId(),
+                item.getName(),
+                item.getDescription(),
+                Boolean.TRUE.equals(item.getAvailable()),
+                item.getName().toLowerCase(),
+                item.getDescription().toLowerCase(),
+                item.getRequestId());
+        documents.put(document.getId(), document);
+        if (!document.isAvailable()) return;
+        for (String gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(document.getId());
+        }
+    }
+
+    private List<Match> top(String query, int limit, Match after) {
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Match> top = new PriorityQueue<>(RANKING);
+            candidates(query).forEach(id -> {
+                Document document = documents.get(id);
+                int score = document.score(query);
+                if (score == 0) return;
+                Match match = new Match(document, score);
+                if (after != null && RANKING.compare(match, after) >= 0) return;
+                top.add(match);
+                if (top.size() > limit) top.poll();
+            });
+            List<Match> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING.reversed());
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Stream<Long> candidates(String query) {
+        if (query.length() < GRAM) return postings.getOrDefault(query, Set.of()).stream();
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : trigrams(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) return Stream.empty();
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        return lists.get(0).stream()
+                .filter(id -> lists.stream().allMatch(ids -> ids.contains(id)));
+    }
+
+    private static List<ItemDto> toItemDtos(List<Match> matches) {
+        return matches.stream()
+                .map(match -> match.getDocument().toItemDto())
+                .collect(Collectors.toList());
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i < value.length(); i++) {
+            for (int length = 1; length <= GRAM && i + length <= value.length(); length++) {
+                grams.add(value.substring(i, i + length));
+            }
+        }
+        return grams;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Document {
+        private final long id;
+        private final String name;
+        private final String description;
+        private final boolean available;
+        private final String lowerName;
+        private final String lowerDescription;
+        private final Long requestId;
+
+        Set<String> grams() {
+            Set<String> grams = ItemSearchIndex.grams(lowerName);
+            grams.addAll(ItemSearchIndex.grams(lowerDescription));
+            return grams;
+        }
+
+        int score(String query) {
+            int score = 0;
+            int inName = lowerName.indexOf(query);
+            if (inName == 0) score += 4;
+            if (inName >= 0) score += 4;
+            if (lowerName.equals(query)) score += 2;
+            if (lowerDescription.contains(query)) score += 1;
+            return score;
+        }
+
+        ItemDto toItemDto() {
+            return new ItemDto(id, name, description, available, requestId);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Match {
+        private final Document document;
+        private final int score;
+    }
+}
@@ -1,20 +1,41 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.imports.ImportResultDto;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ItemService {
     List<ItemBookingDto> findAll(long userId);
 
     ItemBookingDto findItem(long userId, long itemId);
 
-    List<ItemDto> searchItem(String text);
+    Optional<String> findItemTag(long userId, long itemId);
+
+    /**
+     * Ranked by relevance when the search index is enabled, by id otherwise. The index returns at most
+     * {@code shareit.search.limit} matches and rejects a {@code from} at or past that limit.
+     */
+    List<ItemDto> searchItem(String text, int from, int size, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Same order as {@link #searchItem} but without the result limit. The index is read in chunks of
+     * {@code shareit.search.limit}, so memory does not grow with the number of matches.
+     */
+    void streamSearch(String text, int from, Integer size, Consumer<ItemDto> consumer);
 
     ItemDto create(long userId, ItemDto itemDto);
 
+    ImportResultDto importItems(long userId, InputStream input);
+
+    List<CommentDto> findComments(long itemId, Long beforeId, int size);
+
     ItemDto update(long userId, long itemId, ItemDto itemDto);
 
     CommentDto addComment(long userId, long itemId, CommentDto commentDto);
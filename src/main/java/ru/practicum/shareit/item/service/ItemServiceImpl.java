@@ -1,34 +1,67 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.comment.CommentMapper;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.comment.repository.ItemCommentView;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.imports.ImportResultDto;
+import ru.practicum.shareit.imports.ImportRow;
+import ru.practicum.shareit.imports.NdjsonImporter;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemVersionRepository;
+import ru.practicum.shareit.paging.OffsetPageRequest;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.Create;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Slf4j
 @Transactional(readOnly = true)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class ItemServiceImpl implements ItemService {
@@ -36,18 +69,45 @@ public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemVersionRepository itemVersionRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final NdjsonImporter ndjsonImporter;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    @Qualifier("itemViewExecutor")
+    private final Executor itemViewExecutor;
+    @Value("${shareit.search.index-enabled:true}")
+    private boolean searchIndexEnabled;
+    @Value("${shareit.search.limit:100}")
+    private int searchLimit;
+    @Value("${shareit.search.verify:false}")
+    private boolean searchVerify;
+    @Value("${shareit.item-view.parallel:false}")
+    private boolean parallelItemView;
+    @Value("${shareit.item-view.comments-limit:10}")
+    private int commentsLimit;
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ItemBookingDto> findAll(long userId) {
-        return setAllBookingsAndComments(userId, itemRepository.findAllByOwnerIdOrderByIdAsc(userId));
+        return loadItemView(userId, () -> itemRepository.findAllByOwnerIdOrderByIdAsc(userId));
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ItemBookingDto findItem(long userId, long itemId) {
-        Item item = itemRepository.findById(itemId).orElseThrow(() -> {
-            throw new NotFoundException("Item");
-        });
-        return setAllBookingsAndComments(userId, Collections.singletonList(item)).get(0);
+        return loadItemView(userId, () -> {
+            Item item = itemRepository.findById(itemId).orElseThrow(() -> {
+                throw new NotFoundException("Item");
+            });
+            return Collections.singletonList(item);
+        }).get(0);
+    }
+
+    @Override
+    public Optional<String> findItemTag(long userId, long itemId) {
+        return itemVersionRepository.findTag(itemId, userId, LocalDateTime.now());
     }
 
     @Override
@@ -56,11 +116,48 @@ public class ItemServiceImpl implements ItemService {
         User user = userRepository.findById(userId).orElseThrow(() -> {
             throw new NotFoundException("User");
         });
-        Item item = itemRepository.save(ItemMapper.toItem(itemDto, user));
+        ItemRequest request = itemDto.getRequestId() == null ? null
+                : itemRequestRepository.findById(itemDto.getRequestId()).orElseThrow(() -> {
+                    throw new NotFoundException("Request");
+                });
+        Item item = itemRepository.save(ItemMapper.toItem(itemDto, user, request));
         itemDto.setId(item.getId());
+        ItemDto indexed = ItemMapper.toItemDto(item);
+        afterCommit(() -> itemSearchIndex.index(indexed));
         return itemDto;
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportResultDto importItems(long userId, InputStream input) {
+        userRepository.findById(userId).orElseThrow(() -> {
+            throw new NotFoundException("User");
+        });
+        return ndjsonImporter.importRows(input, ItemDto.class, Create.class, rows -> {
+            User owner = userRepository.getReferenceById(userId);
+            Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(rows.stream()
+                            .map(row -> row.getValue().getRequestId())
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+            List<Item> items = new ArrayList<>(rows.size());
+            for (ImportRow<ItemDto> row : rows) {
+                Long requestId = row.getValue().getRequestId();
+                if (requestId != null && !requests.containsKey(requestId)) {
+                    row.reject("Request " + requestId + " not found");
+                    continue;
+                }
+                row.getValue().setId(0);
+                items.add(ItemMapper.toItem(row.getValue(), owner, requestId == null ? null : requests.get(requestId)));
+            }
+            List<ItemDto> indexed = itemRepository.saveAll(items).stream()
+                    .map(ItemMapper::toItemDto)
+                    .collect(Collectors.toList());
+            afterCommit(() -> indexed.forEach(itemSearchIndex::index));
+        });
+    }
+
     @Override
     @Transactional
     public ItemDto update(long userId, long itemId, ItemDto itemDto) {
@@ -75,47 +172,208 @@ public class ItemServiceImpl implements ItemService {
         } else {
             throw new NotFoundException("Item");
         }
-        return ItemMapper.toItemDto(item);
+        ItemDto updated = ItemMapper.toItemDto(item);
+        afterCommit(() -> itemSearchIndex.index(updated));
+        return updated;
     }
 
     @Override
-    public List<ItemDto> searchItem(String text) {
+    public List<ItemDto> searchItem(String text, int from, int size, LocalDateTime start, LocalDateTime end) {
+        if ((start == null) != (end == null)) throw new BadRequestException("Pass both start and end or neither");
+        if (start != null && !end.isAfter(start)) throw new BadRequestException("Wrong time");
         if (text.isBlank()) return Collections.emptyList();
-        return itemRepository.searchByText(text.toLowerCase())
-                .stream()
-                .map(ItemMapper::toItemDto)
+        if (!searchIndexEnabled) {
+            Pageable page = OffsetPageRequest.of(from, size);
+            if (start == null) return searchByText(text, page);
+            return itemRepository.searchFreeByText(text.toLowerCase(), start, end, page)
+                    .stream()
+                    .map(ItemMapper::toItemDto)
+                    .collect(Collectors.toList());
+        }
+        if (from >= searchLimit) {
+            throw new BadRequestException("Search returns at most " + searchLimit + " items, refine the text");
+        }
+        int limit = (int) Math.min((long) from + size, searchLimit);
+        List<ItemDto> items = start == null ? indexSearch(text, limit) : indexSearchFree(text, limit, start, end);
+        if (searchVerify && start == null) verifySearch(text, items, limit);
+        return items.stream()
+                .skip(from)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public void streamSearch(String text, int from, Integer size, Consumer<ItemDto> consumer) {
+        if (text.isBlank()) return;
+        if (searchIndexEnabled) {
+            long[] skipped = {0};
+            long[] sent = {0};
+            long limit = size == null ? Long.MAX_VALUE : size;
+            itemSearchIndex.scan(text, searchLimit, this::availableItems, chunk -> {
+                for (ItemDto item : chunk) {
+                    if (skipped[0] < from) {
+                        skipped[0]++;
+                    } else if (sent[0] < limit) {
+                        consumer.accept(item);
+                        sent[0]++;
+                    }
+                }
+                return sent[0] < limit;
+            });
+            return;
+        }
+        Pageable page = OffsetPageRequest.of(from, size == null ? Integer.MAX_VALUE : size);
+        try (Stream<Item> items = itemRepository.streamByText(text.toLowerCase(), page)) {
+            items.forEach(item -> {
+                consumer.accept(ItemMapper.toItemDto(item));
+                entityManager.detach(item);
+            });
+        }
+    }
+
     @Override
     @Transactional
     public CommentDto addComment(long userId, long itemId, CommentDto commentDto) {
         User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User"));
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Item"));
-        bookingRepository.findByBookerIdAndItemIdAndEndBefore(userId, itemId, LocalDateTime.now())
-                .orElseThrow(() -> new BadRequestException("You can't make a comment to this item"));
+        if (!bookingRepository.existsPastBooking(userId, itemId, LocalDateTime.now())) {
+            throw new BadRequestException("You can't make a comment to this item");
+        }
         commentDto.setCreated(LocalDateTime.now());
         Comment comment = CommentMapper.toComment(user, item, commentDto);
         commentRepository.save(comment);
+        itemVersionRepository.bump(List.of(itemId));
         return CommentMapper.toCommentDto(comment);
     }
 
-    private List<ItemBookingDto> setAllBookingsAndComments(long userId, List<Item> items) {
-        List<Long> ids = items.stream()
+    @Override
+    public List<CommentDto> findComments(long itemId, Long beforeId, int size) {
+        if (!itemRepository.existsById(itemId)) throw new NotFoundException("Item");
+        return commentRepository.findByItemIdAndIdLessThanOrderByIdDesc(itemId,
+                        beforeId == null ? Long.MAX_VALUE : beforeId, PageRequest.of(0, size))
+                .stream()
+                .map(CommentMapper::toCommentDto)
+                .collect(Collectors.toList());
+    }
+
+    private List<ItemDto> indexSearch(String text, int limit) {
+        return itemSearchIndex.search(text, limit, this::availableItems);
+    }
+
+    private List<ItemDto> availableItems() {
+        return itemRepository.findAllByAvailableTrue()
+                .stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Walks the ranked matches in chunks of {@code searchLimit}, dropping items booked in the window, until
+     * {@code limit} free items are found, so booked items near the top never shorten the page.
+     */
+    private List<ItemDto> indexSearchFree(String text, int limit, LocalDateTime start, LocalDateTime end) {
+        List<ItemDto> free = new ArrayList<>(limit);
+        itemSearchIndex.scan(text, searchLimit, this::availableItems, chunk -> {
+            Set<Long> booked = bookingRepository.findItemIdsBookedBetween(chunk.stream()
+                    .map(ItemDto::getId)
+                    .collect(Collectors.toList()), BookingStatus.APPROVED, start, end);
+            chunk.stream()
+                    .filter(item -> !booked.contains(item.getId()))
+                    .limit(limit - free.size())
+                    .forEach(free::add);
+            return free.size() < limit;
+        });
+        return free;
+    }
+
+    private List<ItemDto> searchByText(String text, Pageable page) {
+        return itemRepository.searchByText(text.toLowerCase(), page)
+                .stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    private void verifySearch(String text, List<ItemDto> indexed, int limit) {
+        Set<Long> expected = searchByText(text, Pageable.unpaged()).stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toSet());
+        Set<Long> actual = indexed.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toSet());
+        boolean consistent = expected.size() <= limit ? expected.equals(actual) : expected.containsAll(actual);
+        if (!consistent) {
+            log.warn("Search index is inconsistent for '{}': index {}, database {}", text, actual, expected);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Item views are read without a surrounding transaction. Sequentially all three queries share one read-only
+     * transaction; in parallel mode the items query and both detail queries each take their own short one, so the
+     * request thread never holds a pooled connection while it waits for the workers.
+     */
+    private List<ItemBookingDto> loadItemView(long userId, Supplier<List<Item>> itemsQuery) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        if (!parallelItemView) {
+            return readOnly.execute(status -> {
+                List<Item> items = itemsQuery.get();
+                LocalDateTime now = LocalDateTime.now();
+                List<Long> ids = itemIds(items);
+                return mergeItemView(items, bookingRepository.findLastAndNextBookings(ids, now, userId),
+                        commentRepository.findLatestComments(ids, commentsLimit), now);
+            });
+        }
+        List<Item> items = readOnly.execute(status -> itemsQuery.get());
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = itemIds(items);
+        CompletableFuture<List<Booking>> bookings = CompletableFuture.supplyAsync(
+                () -> readOnly.execute(status -> bookingRepository.findLastAndNextBookings(ids, now, userId)),
+                itemViewExecutor);
+        CompletableFuture<List<ItemCommentView>> comments = CompletableFuture.supplyAsync(
+                () -> readOnly.execute(status -> commentRepository.findLatestComments(ids, commentsLimit)),
+                itemViewExecutor);
+        try {
+            return mergeItemView(items, bookings.join(), comments.join(), now);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    private static List<Long> itemIds(List<Item> items) {
+        return items.stream()
                 .map(Item::getId)
                 .collect(Collectors.toList());
-        List<Booking> bookings = bookingRepository.findBookingsLast(ids, LocalDateTime.now(), userId);
+    }
+
+    static List<ItemBookingDto> mergeItemView(List<Item> items, List<Booking> bookings,
+                                              List<ItemCommentView> comments, LocalDateTime now) {
         Map<Long, ItemBookingDto> itemsMap = items.stream()
                 .map(ItemMapper::toItemDtoBooking)
                 .collect(Collectors.toMap(ItemBookingDto::getId, film -> film, (a, b) -> b));
-        bookings.forEach(booking -> itemsMap.get(booking.getItem().getId())
-                .setLastBooking(BookingMapper.toBookingDto(booking)));
-        bookings = bookingRepository.findBookingsNext(ids, LocalDateTime.now(), userId);
-        bookings.forEach(booking -> itemsMap.get(booking.getItem().getId())
-                .setNextBooking(BookingMapper.toBookingDto(booking)));
-        List<Comment> comments = commentRepository.findAllComments(ids);
-        comments.forEach(comment -> itemsMap.get(comment.getItem().getId())
-                .getComments().add(CommentMapper.toCommentDto(comment)));
+        bookings.forEach(booking -> {
+            ItemBookingDto item = itemsMap.get(booking.getItem().getId());
+            if (booking.getStart().isAfter(now)) {
+                item.setNextBooking(BookingMapper.toBookingDto(booking));
+            } else item.setLastBooking(BookingMapper.toBookingDto(booking));
+        });
+        comments.forEach(comment -> {
+            ItemBookingDto item = itemsMap.get(comment.getItemId());
+            item.getComments().add(CommentMapper.toCommentDto(comment));
+            item.setCommentsTotal(comment.getTotal());
+        });
         return new ArrayList<>(itemsMap.values());
     }
 }
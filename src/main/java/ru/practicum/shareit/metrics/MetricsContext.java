@@ -0,0 +1,26 @@
+package ru.practicum.shareit.metrics;
+
+final class MetricsContext {
+    static final String NO_STATE = "none";
+    private static final ThreadLocal<String> STATE = new ThreadLocal<>();
+
+    private MetricsContext() {
+    }
+
+    static String state() {
+        String state = STATE.get();
+        return state == null ? NO_STATE : state;
+    }
+
+    static String enter(String state) {
+        String previous = STATE.get();
+        STATE.set(state);
+        return previous;
+    }
+
+    static void restore(String previous) {
+        if (previous == null) {
+            STATE.remove();
+        } else STATE.set(previous);
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps every Spring Data repository in a timer tagged by repository, method and the booking state being served.
+ * Calls slower than {@code shareit.metrics.slow-query-threshold} are logged.
+ */
+@Slf4j
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Duration slowQueryThreshold;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                          @Value("${shareit.metrics.slow-query-threshold:200ms}")
+                                          Duration slowQueryThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, information) ->
+                            proxyFactory.addAdvice(new TimingInterceptor(
+                                    information.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private class TimingInterceptor implements MethodInterceptor {
+        private final String repository;
+        private final Map<List<String>, Timer> timers = new ConcurrentHashMap<>();
+
+        TimingInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        private Timer timer(String method, String state, String outcome) {
+            return timers.computeIfAbsent(List.of(method, state, outcome), key -> Timer.builder("shareit.repository")
+                    .description("Spring Data repository call time")
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .tag("state", state)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry.getObject()));
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            long start = System.nanoTime();
+            String outcome = "success";
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                outcome = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                String method = invocation.getMethod().getName();
+                timer(method, MetricsContext.state(), outcome).record(elapsed, TimeUnit.NANOSECONDS);
+                if (elapsed > slowQueryThreshold.toNanos()) {
+                    log.warn("Slow repository call {}.{} [state={}] took {} ms", repository, method,
+                            MetricsContext.state(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingState;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Aspect
+@Component
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ServiceMetricsAspect {
+    static final String UNKNOWN_STATE = "UNKNOWN";
+    private static final Set<String> STATES = Arrays.stream(BookingState.values())
+            .map(Enum::name)
+            .collect(Collectors.toUnmodifiableSet());
+
+    private final MeterRegistry meterRegistry;
+    private final Map<List<String>, Timer> timers = new ConcurrentHashMap<>();
+
+    @Around("within(ru.practicum.shareit.booking.service.BookingService+) " +
+            "|| within(ru.practicum.shareit.item.service.ItemService+) " +
+            "|| within(ru.practicum.shareit.user.service.UserService+)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        String state = state(signature, joinPoint.getArgs());
+        String previous = MetricsContext.enter(state);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            MetricsContext.restore(previous);
+            sample.stop(timer(signature.getDeclaringType().getSimpleName(), signature.getName(), state, outcome));
+        }
+    }
+
+    private Timer timer(String service, String method, String state, String outcome) {
+        return timers.computeIfAbsent(List.of(service, method, state, outcome), key -> Timer.builder("shareit.service")
+                .description("Service method execution time")
+                .tag("service", service)
+                .tag("method", method)
+                .tag("state", state)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    /**
+     * The state request parameter reaches the service unvalidated; anything but a known state is tagged as
+     * {@value #UNKNOWN_STATE} so arbitrary input cannot create new time series.
+     */
+    private static String state(MethodSignature signature, Object[] args) {
+        String[] names = signature.getParameterNames();
+        if (names == null) return MetricsContext.NO_STATE;
+        for (int i = 0; i < names.length; i++) {
+            if ("state".equals(names[i]) && args[i] != null) {
+                return STATES.contains(args[i].toString()) ? args[i].toString() : UNKNOWN_STATE;
+            }
+        }
+        return MetricsContext.NO_STATE;
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@Slf4j
+@Component
+public class SqlBudgetInterceptor implements AsyncHandlerInterceptor {
+    private final SqlBudgetViolations violations;
+    private final int defaultBudget;
+    private final boolean strict;
+
+    public SqlBudgetInterceptor(SqlBudgetViolations violations,
+                                @Value("${shareit.sql.default-budget:10}") int defaultBudget,
+                                @Value("${shareit.sql.strict:false}") boolean strict) {
+        this.violations = violations;
+        this.defaultBudget = defaultBudget;
+        this.strict = strict;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementCounter.start();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        SqlStatementCounter.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        SqlStatementCounter.Stats stats = SqlStatementCounter.stop();
+        if (stats == null || !(handler instanceof HandlerMethod)) return;
+        SqlBudget declared = ((HandlerMethod) handler).getMethodAnnotation(SqlBudget.class);
+        int budget = declared == null ? defaultBudget : declared.value();
+        if (stats.getCount() <= budget) return;
+        String endpoint = request.getMethod() + " " + request.getRequestURI();
+        log.warn("{} issued {} SQL statements ({} ms), budget is {}", endpoint, stats.getCount(),
+                stats.getMillis(), budget);
+        if (strict) violations.add(new SqlBudgetViolations.Violation(endpoint, budget, stats.getCount()));
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Budget violations collected while {@code shareit.sql.strict} is on, so tests can fail on them.
+ */
+@Component
+public class SqlBudgetViolations {
+    private final List<Violation> violations = new ArrayList<>();
+
+    synchronized void add(Violation violation) {
+        violations.add(violation);
+    }
+
+    public synchronized List<Violation> drain() {
+        List<Violation> drained = new ArrayList<>(violations);
+        violations.clear();
+        return drained;
+    }
+
+    public void assertNone() {
+        List<Violation> drained = drain();
+        if (!drained.isEmpty()) throw new AssertionError("SQL budget exceeded: " + drained);
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Violation {
+        private final String endpoint;
+        private final int budget;
+        private final int statements;
+    }
+}
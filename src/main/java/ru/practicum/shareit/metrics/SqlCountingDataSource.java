@@ -0,0 +1,79 @@
+package ru.practicum.shareit.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts and times every statement executed through the application's DataSource, whether it comes from
+ * Hibernate, a JdbcTemplate or a worker thread, into the {@link SqlStatementCounter} bound to the current thread.
+ * A batch counts as one statement.
+ */
+public class SqlCountingDataSource extends DelegatingDataSource {
+
+    public SqlCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, obtainTargetDataSource().getConnection(), this::connection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, obtainTargetDataSource().getConnection(username, password), this::connection);
+    }
+
+    private Object connection(Object target, Method method, Object[] args) throws Throwable {
+        Object result = invoke(target, method, args);
+        switch (method.getName()) {
+            case "createStatement":
+                return wrap(Statement.class, (Statement) result, this::statement);
+            case "prepareStatement":
+                return wrap(PreparedStatement.class, (PreparedStatement) result, this::statement);
+            case "prepareCall":
+                return wrap(CallableStatement.class, (CallableStatement) result, this::statement);
+            default:
+                return result;
+        }
+    }
+
+    private Object statement(Object target, Method method, Object[] args) throws Throwable {
+        if (!method.getName().startsWith("execute")) return invoke(target, method, args);
+        long start = System.nanoTime();
+        try {
+            return invoke(target, method, args);
+        } finally {
+            SqlStatementCounter.statement(System.nanoTime() - start);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static <T> T wrap(Class<T> type, T target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+        return type.cast(Proxy.newProxyInstance(SqlCountingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                invocationHandler));
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
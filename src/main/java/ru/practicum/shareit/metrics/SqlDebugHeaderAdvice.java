@@ -0,0 +1,36 @@
+package ru.practicum.shareit.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+@RestControllerAdvice
+public class SqlDebugHeaderAdvice implements ResponseBodyAdvice<Object> {
+    public static final String COUNT_HEADER = "X-Sql-Count";
+    public static final String TIME_HEADER = "X-Sql-Time-Ms";
+
+    @Value("${shareit.sql.debug-headers:false}")
+    private boolean enabled;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatementCounter.Stats stats = SqlStatementCounter.current();
+        if (stats != null) {
+            response.getHeaders().set(COUNT_HEADER, String.valueOf(stats.getCount()));
+            response.getHeaders().set(TIME_HEADER, String.valueOf(stats.getMillis()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class SqlStatementCounter {
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static void start() {
+        CURRENT.set(new Stats());
+    }
+
+    public static Stats current() {
+        return CURRENT.get();
+    }
+
+    public static Stats stop() {
+        Stats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    /**
+     * Binds stats started on another thread, so work handed to an executor is counted against the request
+     * that submitted it. Returns the previous binding to restore afterwards.
+     */
+    public static Stats attach(Stats stats) {
+        Stats previous = CURRENT.get();
+        restore(stats);
+        return previous;
+    }
+
+    public static void restore(Stats previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else CURRENT.set(previous);
+    }
+
+    static void statement(long nanos) {
+        Stats stats = CURRENT.get();
+        if (stats == null) return;
+        stats.count.incrementAndGet();
+        stats.nanos.addAndGet(nanos);
+    }
+
+    public static class Stats {
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicLong nanos = new AtomicLong();
+
+        public int getCount() {
+            return count.get();
+        }
+
+        public long getNanos() {
+            return nanos.get();
+        }
+
+        public long getMillis() {
+            return nanos.get() / 1_000_000;
+        }
+    }
+}
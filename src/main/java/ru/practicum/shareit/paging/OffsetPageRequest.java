@@ -0,0 +1,79 @@
+package ru.practicum.shareit.paging;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Pageable addressed by a row offset rather than a page number, so that {@code from} values that are not a
+ * multiple of {@code size} start exactly at the requested row instead of the start of the enclosing page.
+ */
+@ToString
+@EqualsAndHashCode
+public class OffsetPageRequest implements Pageable {
+    private final long offset;
+    private final int size;
+    private final Sort sort;
+
+    public OffsetPageRequest(long offset, int size, Sort sort) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be positive");
+        }
+        this.offset = offset;
+        this.size = size;
+        this.sort = sort;
+    }
+
+    public static OffsetPageRequest of(long offset, int size) {
+        return new OffsetPageRequest(offset, size, Sort.unsorted());
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / size);
+    }
+
+    @Override
+    public int getPageSize() {
+        return size;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return sort;
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageRequest(offset + size, size, sort);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new OffsetPageRequest(Math.max(0, offset - size), size, sort) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageRequest(0, size, sort);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetPageRequest((long) pageNumber * size, size, sort);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+}
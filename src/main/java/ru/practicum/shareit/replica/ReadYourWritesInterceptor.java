@@ -0,0 +1,24 @@
+package ru.practicum.shareit.replica;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Pins the caller of every mutating request before it runs, so a follow-up read can never overtake the pin.
+ * The method alone decides: user creation and updates write without a sharer id.
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+    private final ReadYourWritesPins pins;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) return true;
+        pins.pin(request);
+        return true;
+    }
+}
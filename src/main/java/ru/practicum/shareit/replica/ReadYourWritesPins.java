@@ -0,0 +1,64 @@
+package ru.practicum.shareit.replica;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Callers who wrote recently, and so must keep reading from the primary until their pin expires. A caller is known
+ * by its client address and, when the request carries one, by its sharer id: user creation and updates come without
+ * the header, and the requests that follow them usually come with it.
+ */
+public class ReadYourWritesPins {
+    static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+    private final long pinNanos;
+
+    public ReadYourWritesPins(Duration pin) {
+        this.pinNanos = pin.toNanos();
+    }
+
+    public void pin(HttpServletRequest request) {
+        long expiry = System.nanoTime() + pinNanos;
+        for (String caller : callers(request)) {
+            expiries.put(caller, expiry);
+        }
+    }
+
+    public boolean isPinned(HttpServletRequest request) {
+        for (String caller : callers(request)) {
+            if (isPinned(caller)) return true;
+        }
+        return false;
+    }
+
+    public void evictExpired() {
+        long now = System.nanoTime();
+        expiries.values().removeIf(expiry -> expiry - now <= 0);
+    }
+
+    private boolean isPinned(String caller) {
+        Long expiry = expiries.get(caller);
+        if (expiry == null) return false;
+        if (expiry - System.nanoTime() > 0) return true;
+        expiries.remove(caller, expiry);
+        return false;
+    }
+
+    private static List<String> callers(HttpServletRequest request) {
+        List<String> callers = new ArrayList<>(2);
+        if (request.getRemoteAddr() != null) callers.add("client:" + request.getRemoteAddr());
+        String header = request.getHeader(USER_HEADER);
+        if (header == null) return callers;
+        try {
+            callers.add("user:" + Long.parseLong(header.trim()));
+        } catch (NumberFormatException ignored) {
+            // a malformed id is rejected by the controller; the client address still pins the caller
+        }
+        return callers;
+    }
+}
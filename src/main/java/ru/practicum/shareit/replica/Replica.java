@@ -0,0 +1,32 @@
+package ru.practicum.shareit.replica;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Slf4j
+@Getter
+@RequiredArgsConstructor
+public class Replica {
+    private final String name;
+    private final DataSource dataSource;
+    private volatile boolean healthy;
+    private volatile boolean checked;
+    private volatile Duration lag = Duration.ZERO;
+
+    public void markUp(Duration lag) {
+        if (!healthy) log.info("Replica {} is up, lag {}", name, lag);
+        this.lag = lag;
+        this.healthy = true;
+        this.checked = true;
+    }
+
+    public void markDown(Exception cause) {
+        if (healthy || !checked) log.warn("Replica {} is down: {}", name, cause.getMessage());
+        this.healthy = false;
+        this.checked = true;
+    }
+}
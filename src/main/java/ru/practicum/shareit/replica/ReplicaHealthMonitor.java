@@ -0,0 +1,40 @@
+package ru.practicum.shareit.replica;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Probes every replica with the configured lag query, which must return the replication delay in seconds,
+ * e.g. {@code select coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0)} on PostgreSQL.
+ */
+@RequiredArgsConstructor
+public class ReplicaHealthMonitor {
+    private final ReplicaSelector selector;
+    private final ReadYourWritesPins pins;
+    private final String lagQuery;
+    private final int timeoutSeconds;
+
+    @Scheduled(fixedDelayString = "${shareit.replicas.check-interval:PT5S}",
+            initialDelayString = "${shareit.replicas.initial-check-delay:PT0S}")
+    public void check() {
+        for (Replica replica : selector.getReplicas()) {
+            try (Connection connection = replica.getDataSource().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(timeoutSeconds);
+                try (ResultSet lag = statement.executeQuery(lagQuery)) {
+                    lag.next();
+                    replica.markUp(Duration.ofMillis(Math.round(lag.getDouble(1) * 1000)));
+                }
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+        pins.evictExpired();
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(name = "shareit.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+
+    @Value("${shareit.replicas.pin-after-write:PT5S}")
+    private Duration pinAfterWrite;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesPins readYourWritesPins() {
+        return new ReadYourWritesPins(pinAfterWrite);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaSelector replicaSelector(DataSourceProperties properties,
+                                           ReadYourWritesPins pins,
+                                           @Value("${shareit.replicas.urls}") List<String> urls,
+                                           @Value("${shareit.replicas.pool-size:10}") int poolSize,
+                                           @Value("${shareit.replicas.connection-timeout:PT1S}")
+                                           Duration connectionTimeout,
+                                           @Value("${shareit.replicas.max-lag:PT5S}") Duration maxLag) {
+        List<Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setJdbcUrl(urls.get(i));
+            dataSource.setUsername(properties.determineUsername());
+            dataSource.setPassword(properties.determinePassword());
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+            dataSource.setReadOnly(true);
+            replicas.add(new Replica(dataSource.getPoolName(), dataSource));
+        }
+        return new ReplicaSelector(replicas, pins, maxLag);
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(ReplicaSelector selector,
+                                                     ReadYourWritesPins pins,
+                                                     @Value("${shareit.replicas.lag-query:select 0}") String lagQuery,
+                                                     @Value("${shareit.replicas.check-timeout:2}") int timeout) {
+        return new ReplicaHealthMonitor(selector, pins, lagQuery, timeout);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaSelector replicaSelector) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaSelector));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(readYourWritesPins()));
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.replica;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Sends connections of read-only transactions to a replica and everything else to the primary.
+ * A replica that refuses a connection is marked down and the request falls back to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy, so the read-only flag is known before a connection is fetched.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+    private final DataSource primary;
+    private final ReplicaSelector selector;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaSelector selector) {
+        this.primary = primary;
+        this.selector = selector;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) return primary.getConnection();
+        Optional<Replica> replica = selector.select();
+        if (replica.isEmpty()) return primary.getConnection();
+        try {
+            return replica.get().getDataSource().getConnection();
+        } catch (SQLException e) {
+            replica.get().markDown(e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.replica;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks a healthy replica within the lag tolerance, round robin, unless the current caller is pinned to the primary.
+ * Replicas start down and only receive reads once the health monitor has probed them. Owns the replica pools and
+ * closes them on shutdown.
+ */
+@Slf4j
+public class ReplicaSelector implements AutoCloseable {
+    @Getter
+    private final List<Replica> replicas;
+    private final ReadYourWritesPins pins;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaSelector(List<Replica> replicas, ReadYourWritesPins pins, Duration maxLag) {
+        this.replicas = replicas;
+        this.pins = pins;
+        this.maxLag = maxLag;
+    }
+
+    public Optional<Replica> select() {
+        if (replicas.isEmpty() || callerPinned()) return Optional.empty();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isHealthy() && replica.getLag().compareTo(maxLag) <= 0) return Optional.of(replica);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (!(replica.getDataSource() instanceof AutoCloseable)) continue;
+            try {
+                ((AutoCloseable) replica.getDataSource()).close();
+            } catch (Exception e) {
+                log.warn("Failed to close replica {}", replica.getName(), e);
+            }
+        }
+    }
+
+    private boolean callerPinned() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) return false;
+        return pins.isPinned(((ServletRequestAttributes) attributes).getRequest());
+    }
+}
@@ -1,12 +1,51 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.metrics.SqlBudget;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.Create;
+
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.List;
 
-/**
- * TODO Sprint add-item-requests.
- */
 @RestController
+@Validated
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class ItemRequestController {
+
+    private final ItemRequestService itemRequestService;
+
+    @SqlBudget(3)
+    @PostMapping
+    public ItemRequestDto create(@RequestHeader("X-Sharer-User-Id") long userId,
+                                 @Validated(Create.class) @RequestBody ItemRequestDto itemRequestDto) {
+        return itemRequestService.create(userId, itemRequestDto);
+    }
+
+    @SqlBudget(3)
+    @GetMapping
+    public List<ItemRequestDto> findOwn(@RequestHeader("X-Sharer-User-Id") long userId) {
+        return itemRequestService.findOwn(userId);
+    }
+
+    @SqlBudget(3)
+    @GetMapping("/all")
+    public List<ItemRequestDto> findAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                        @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                        @Positive @RequestParam(defaultValue = "20") int size) {
+        return itemRequestService.findAll(userId, from, size);
+    }
+
+    @SqlBudget(3)
+    @GetMapping("/{requestId}")
+    public ItemRequestDto findById(@RequestHeader("X-Sharer-User-Id") long userId,
+                                   @PathVariable long requestId) {
+        return itemRequestService.findById(userId, requestId);
+    }
 }
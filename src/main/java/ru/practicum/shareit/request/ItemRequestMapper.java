@@ -0,0 +1,25 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ItemRequestMapper {
+    public static ItemRequest toItemRequest(ItemRequestDto itemRequestDto, User requestor, LocalDateTime created) {
+        return new ItemRequest(null,
+                itemRequestDto.getDescription(),
+                requestor,
+                created);
+    }
+
+    public static ItemRequestDto toItemRequestDto(ItemRequest itemRequest, List<ItemDto> items) {
+        return new ItemRequestDto(itemRequest.getId(),
+                itemRequest.getDescription(),
+                itemRequest.getCreated(),
+                items);
+    }
+}
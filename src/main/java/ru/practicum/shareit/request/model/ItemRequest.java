@@ -0,0 +1,29 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "REQUESTS")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemRequest {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
+    Long id;
+    String description;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "requestor_id")
+    @ToString.Exclude
+    User requestor;
+    LocalDateTime created;
+}
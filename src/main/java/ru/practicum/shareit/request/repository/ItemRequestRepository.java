@@ -0,0 +1,22 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+
+@Repository
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @Query("select request from ItemRequest request " +
+            "where request.requestor.id = ?1 " +
+            "order by request.created desc, request.id desc")
+    List<ItemRequest> findAllByRequestorIdOrderByCreatedDescIdDesc(long requestorId);
+
+    @Query("select request from ItemRequest request " +
+            "where request.requestor.id <> ?1 " +
+            "order by request.created desc, request.id desc")
+    List<ItemRequest> findAllByRequestorIdNotOrderByCreatedDescIdDesc(long requestorId, Pageable pageable);
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request.service;
+
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.util.List;
+
+public interface ItemRequestService {
+    ItemRequestDto create(long userId, ItemRequestDto itemRequestDto);
+
+    List<ItemRequestDto> findOwn(long userId);
+
+    List<ItemRequestDto> findAll(long userId, int from, int size);
+
+    ItemRequestDto findById(long userId, long requestId);
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.paging.OffsetPageRequest;
+import ru.practicum.shareit.request.ItemRequestMapper;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemRequestServiceImpl implements ItemRequestService {
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    @Transactional
+    public ItemRequestDto create(long userId, ItemRequestDto itemRequestDto) {
+        User user = userRepository.findById(userId).orElseThrow(() -> {
+            throw new NotFoundException("User");
+        });
+        ItemRequest itemRequest = itemRequestRepository.save(ItemRequestMapper.toItemRequest(itemRequestDto, user,
+                LocalDateTime.now()));
+        log.info("Request {} created by user {}", itemRequest.getId(), userId);
+        return ItemRequestMapper.toItemRequestDto(itemRequest, new ArrayList<>());
+    }
+
+    @Override
+    public List<ItemRequestDto> findOwn(long userId) {
+        checkUser(userId);
+        return withAnswers(itemRequestRepository.findAllByRequestorIdOrderByCreatedDescIdDesc(userId));
+    }
+
+    @Override
+    public List<ItemRequestDto> findAll(long userId, int from, int size) {
+        checkUser(userId);
+        return withAnswers(itemRequestRepository.findAllByRequestorIdNotOrderByCreatedDescIdDesc(userId,
+                OffsetPageRequest.of(from, size)));
+    }
+
+    @Override
+    public ItemRequestDto findById(long userId, long requestId) {
+        checkUser(userId);
+        ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() -> {
+            throw new NotFoundException("Request");
+        });
+        return withAnswers(Collections.singletonList(itemRequest)).get(0);
+    }
+
+    private void checkUser(long userId) {
+        if (!userRepository.existsById(userId)) throw new NotFoundException("User");
+    }
+
+    private List<ItemRequestDto> withAnswers(List<ItemRequest> requests) {
+        if (requests.isEmpty()) return Collections.emptyList();
+        List<Long> ids = requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemDto>> answers = itemRepository.findAllByRequestIdInOrderByIdAsc(ids).stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDto(request,
+                        answers.getOrDefault(request.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.seed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fills an empty database with synthetic users, items, bookings and comments.
+ * Owners, bookers, authors and booked items follow a power-law distribution, so a few accounts carry most of the data.
+ */
+@Slf4j
+@Component
+@Profile("seed")
+public class DataSeeder implements ApplicationRunner {
+    private static final int ID_ALLOCATION = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SplittableRandom random;
+    private final int users;
+    private final int items;
+    private final int bookings;
+    private final int comments;
+    private final int batchSize;
+    private final double skew;
+
+    public DataSeeder(JdbcTemplate jdbcTemplate,
+                      @Value("${shareit.seed.users}") int users,
+                      @Value("${shareit.seed.items}") int items,
+                      @Value("${shareit.seed.bookings}") int bookings,
+                      @Value("${shareit.seed.comments}") int comments,
+                      @Value("${shareit.seed.batch-size:5000}") int batchSize,
+                      @Value("${shareit.seed.skew:1.2}") double skew,
+                      @Value("${shareit.seed.random-seed:42}") long seed) {
+        if (Math.abs(skew - 1) < 1e-9) throw new IllegalArgumentException("shareit.seed.skew must differ from 1");
+        this.jdbcTemplate = jdbcTemplate;
+        this.users = users;
+        this.items = items;
+        this.bookings = bookings;
+        this.comments = comments;
+        this.batchSize = batchSize;
+        this.skew = skew;
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long existing = jdbcTemplate.queryForObject("select count(*) from users", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("Seeding skipped: database already holds {} users", existing);
+            return;
+        }
+        long started = System.currentTimeMillis();
+        seedUsers();
+        long[] owners = seedItems();
+        seedBookings(owners);
+        seedComments();
+        log.info("Seeded {} users, {} items, {} bookings, {} comments in {} ms",
+                users, items, bookings, comments, System.currentTimeMillis() - started);
+    }
+
+    private void seedUsers() {
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long id = 1; id <= users; id++) {
+            batch.add(new Object[]{id, "user" + id, "user" + id + "@seed.shareit"});
+            flushIfFull("insert into users (id, name, email) values (?, ?, ?)", batch);
+        }
+        flush("insert into users (id, name, email) values (?, ?, ?)", batch);
+        restartSequence("users_seq", users);
+    }
+
+    private long[] seedItems() {
+        String sql = "insert into items (id, name, description, is_available, owner_id) values (?, ?, ?, ?, ?)";
+        long[] owners = new long[items + 1];
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int id = 1; id <= items; id++) {
+            owners[id] = powerLaw(users);
+            batch.add(new Object[]{id, "item " + id, "synthetic item number " + id, random.nextInt(10) != 0, owners[id]});
+            flushIfFull(sql, batch);
+        }
+        flush(sql, batch);
+        restartSequence("items_seq", items);
+        return owners;
+    }
+
+    private void seedBookings(long[] owners) {
+        String sql = "insert into bookings (id, start_time, end_time, item_id, booker_id, status) " +
+                "values (?, ?, ?, ?, ?, ?)";
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime origin = now.minusYears(2);
+        long horizon = Duration.between(origin, now.plusMonths(3)).toHours();
+        long[] freeFrom = new long[items + 1];
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long id = 1; id <= bookings; id++) {
+            int item = (int) powerLaw(items);
+            for (int attempt = 0; freeFrom[item] > horizon && attempt < 8; attempt++) {
+                item = 1 + random.nextInt(items);
+            }
+            long booker = powerLaw(users);
+            if (booker == owners[item]) booker = booker % users + 1;
+            long startHours = freeFrom[item] + random.nextInt(24 * 10);
+            long endHours = startHours + 1 + random.nextInt(24 * 5);
+            freeFrom[item] = endHours;
+            LocalDateTime start = origin.plusHours(startHours);
+            LocalDateTime end = origin.plusHours(endHours);
+            batch.add(new Object[]{id, Timestamp.valueOf(start), Timestamp.valueOf(end), item, booker,
+                    status(start, now)});
+            flushIfFull(sql, batch);
+        }
+        flush(sql, batch);
+        restartSequence("bookings_seq", bookings);
+    }
+
+    private void seedComments() {
+        String sql = "insert into comments (id, text, item_id, author_id, created) values (?, ?, ?, ?, ?)";
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long id = 1; id <= comments; id++) {
+            batch.add(new Object[]{id, "synthetic comment " + id, powerLaw(items), powerLaw(users),
+                    Timestamp.valueOf(now.minusMinutes(random.nextInt(60 * 24 * 365 * 2)))});
+            flushIfFull(sql, batch);
+        }
+        flush(sql, batch);
+        restart("comments", comments);
+    }
+
+    private String status(LocalDateTime start, LocalDateTime now) {
+        int roll = random.nextInt(10);
+        if (roll == 0) return "REJECTED";
+        if (start.isAfter(now) && roll < 4) return "WAITING";
+        return "APPROVED";
+    }
+
+    private long powerLaw(int n) {
+        double u = random.nextDouble();
+        double exponent = 1 - skew;
+        double x = Math.pow((Math.pow(n, exponent) - 1) * u + 1, 1 / exponent);
+        return Math.min(n, Math.max(1, (long) x));
+    }
+
+    private void flushIfFull(String sql, List<Object[]> batch) {
+        if (batch.size() >= batchSize) flush(sql, batch);
+    }
+
+    private void flush(String sql, List<Object[]> batch) {
+        if (batch.isEmpty()) return;
+        jdbcTemplate.batchUpdate(sql, batch);
+        batch.clear();
+    }
+
+    private void restart(String table, long lastId) {
+        jdbcTemplate.execute("alter table " + table + " alter column id restart with " + (lastId + 1));
+    }
+
+    private void restartSequence(String sequence, long lastId) {
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (lastId + ID_ALLOCATION));
+    }
+}
@@ -2,12 +2,18 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.imports.ImportResultDto;
+import ru.practicum.shareit.metrics.SqlBudget;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(path = "/users")
@@ -15,26 +21,39 @@ import java.util.List;
 public class UserController {
     private final UserService userService;
 
+    @SqlBudget(1)
     @GetMapping
     public List<UserDto> findAll() {
         return userService.findAll();
     }
 
+    @SqlBudget(2)
     @GetMapping("/{id}")
-    public UserDto getById(@PathVariable long id) {
+    public UserDto getById(@PathVariable long id, WebRequest request) {
+        Optional<String> tag = userService.findTag(id);
+        if (tag.isPresent() && request.checkNotModified(tag.get())) return null;
         return userService.getById(id);
     }
 
+    @SqlBudget(3)
     @PostMapping
     public UserDto create(@Validated(Create.class) @RequestBody UserDto userDto) {
         return userService.create(userDto);
     }
 
+    @SqlBudget(1000)
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportResultDto importUsers(InputStream body) {
+        return userService.importUsers(body);
+    }
+
+    @SqlBudget(2)
     @PatchMapping("/{id}")
     public UserDto update(@PathVariable long id, @Validated(Update.class) @RequestBody UserDto userDto) {
         return userService.update(id, userDto);
     }
 
+    @SqlBudget(2)
     @DeleteMapping("/{id}")
     public void delete(@PathVariable long id) {
         userService.delete(id);
@@ -8,7 +8,8 @@ public class UserMapper {
     public static User toUser(UserDto userDto) {
         return new User(userDto.getId(),
                 userDto.getName(),
-                userDto.getEmail());
+                userDto.getEmail(),
+                null);
     }
 
     public static UserDto toUserDto(User user) {
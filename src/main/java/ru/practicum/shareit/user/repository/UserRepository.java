@@ -1,10 +1,20 @@
 package ru.practicum.shareit.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 
 @Repository
 public interface UserRepository extends JpaRepository<User,Long> {
+    @Query("select existing.email from User existing where existing.email in ?1")
+    List<String> findEmailsIn(Collection<String> emails);
+
+    @Query("select existing.version from User existing where existing.id = ?1")
+    Optional<Long> findVersionById(long id);
 }
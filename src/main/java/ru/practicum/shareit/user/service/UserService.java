@@ -1,16 +1,23 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.imports.ImportResultDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 
 public interface UserService {
     List<UserDto> findAll();
 
     UserDto getById(long id);
 
+    Optional<String> findTag(long id);
+
     UserDto create(UserDto userDto);
 
+    ImportResultDto importUsers(InputStream input);
+
     UserDto update(long id,UserDto userDto);
 
     void delete(long id);
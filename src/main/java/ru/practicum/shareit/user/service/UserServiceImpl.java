@@ -3,14 +3,25 @@ package ru.practicum.shareit.user.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.imports.ImportResultDto;
+import ru.practicum.shareit.imports.ImportRow;
+import ru.practicum.shareit.imports.NdjsonImporter;
+import ru.practicum.shareit.item.repository.ItemVersionRepository;
+import ru.practicum.shareit.user.Create;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,6 +29,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final NdjsonImporter ndjsonImporter;
+    private final ItemVersionRepository itemVersionRepository;
 
     @Override
     public List<UserDto> findAll() {
@@ -32,6 +45,11 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toUserDto(user);
     }
 
+    @Override
+    public Optional<String> findTag(long id) {
+        return userRepository.findVersionById(id).map(version -> "user-" + id + "-" + version);
+    }
+
     @Override
     @Transactional
     public UserDto create(UserDto userDto) {
@@ -39,12 +57,35 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toUserDto(user);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportResultDto importUsers(InputStream input) {
+        return ndjsonImporter.importRows(input, UserDto.class, Create.class, rows -> {
+            Set<String> taken = new HashSet<>(userRepository.findEmailsIn(rows.stream()
+                    .map(row -> row.getValue().getEmail())
+                    .collect(Collectors.toSet())));
+            List<User> users = new ArrayList<>(rows.size());
+            for (ImportRow<UserDto> row : rows) {
+                if (!taken.add(row.getValue().getEmail())) {
+                    row.reject("Email already in use");
+                    continue;
+                }
+                row.getValue().setId(null);
+                users.add(UserMapper.toUser(row.getValue()));
+            }
+            userRepository.saveAll(users);
+        });
+    }
+
     @Override
     @Transactional
     public UserDto update(long id,UserDto userDto) {
         User user = userRepository.findById(id).orElseThrow(() -> new NotFoundException("user"));
         if (userDto.getEmail() != null) user.setEmail(userDto.getEmail());
-        if (userDto.getName() != null) user.setName(userDto.getName());
+        if (userDto.getName() != null && !userDto.getName().equals(user.getName())) {
+            user.setName(userDto.getName());
+            itemVersionRepository.bumpCommentedBy(id);
+        }
         return UserMapper.toUserDto(userRepository.save(user));
     }
 
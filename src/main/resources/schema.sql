@@ -1,24 +1,47 @@
+CREATE SEQUENCE IF NOT EXISTS USERS_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS ITEMS_SEQ START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS USERS (
-    ID          BIGINT generated by default as identity primary key,
+    ID          BIGINT primary key,
     NAME        VARCHAR(64) not null,
     EMAIL       VARCHAR(64) not null,
+    VERSION     BIGINT default 0 not null,
     CONSTRAINT un_email UNIQUE (EMAIL)
 );
 
+CREATE SEQUENCE IF NOT EXISTS REQUESTS_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS REQUESTS (
+    ID              BIGINT primary key,
+    DESCRIPTION     VARCHAR(512) not null,
+    REQUESTOR_ID    BIGINT not null,
+    CREATED         TIMESTAMP WITHOUT TIME ZONE not null,
+    CONSTRAINT fk_requestor
+        FOREIGN KEY (requestor_id)
+            REFERENCES users(id)
+);
+
 CREATE TABLE IF NOT EXISTS ITEMS (
-    ID              BIGINT generated by default as identity primary key,
+    ID              BIGINT primary key,
     NAME            VARCHAR(64) not null,
     DESCRIPTION     VARCHAR(64) not null,
     IS_AVAILABLE    BOOLEAN not null,
     OWNER_ID        BIGINT,
     REQUEST_ID      BIGINT,
+    VERSION         BIGINT default 0 not null,
+    AGGREGATE_VERSION BIGINT default 0 not null,
     CONSTRAINT fk_user
     FOREIGN KEY (owner_id)
-    REFERENCES users(id)
+    REFERENCES users(id),
+    CONSTRAINT fk_item_request
+        FOREIGN KEY (request_id)
+            REFERENCES requests(id)
 );
 
+CREATE SEQUENCE IF NOT EXISTS BOOKINGS_SEQ START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS BOOKINGS (
-    ID              BIGINT generated by default as identity primary key,
+    ID              BIGINT primary key,
     START_TIME      TIMESTAMP WITHOUT TIME ZONE not null,
     END_TIME        TIMESTAMP WITHOUT TIME ZONE not null,
     ITEM_ID         BIGINT,
@@ -32,6 +55,21 @@ CREATE TABLE IF NOT EXISTS BOOKINGS (
             REFERENCES users(id)
 );
 
+CREATE TABLE IF NOT EXISTS BOOKINGS_ARCHIVE (
+    ID              BIGINT primary key,
+    START_TIME      TIMESTAMP WITHOUT TIME ZONE not null,
+    END_TIME        TIMESTAMP WITHOUT TIME ZONE not null,
+    ITEM_ID         BIGINT,
+    BOOKER_ID       BIGINT,
+    STATUS          VARCHAR(10),
+    CONSTRAINT fk_archive_item
+        FOREIGN KEY (item_id)
+            REFERENCES items(id),
+    CONSTRAINT fk_archive_booker
+        FOREIGN KEY (booker_id)
+            REFERENCES users(id)
+);
+
 CREATE TABLE IF NOT EXISTS COMMENTS (
     ID              BIGINT generated by default as identity primary key,
     TEXT            VARCHAR(100) not null,
@@ -44,4 +82,31 @@ CREATE TABLE IF NOT EXISTS COMMENTS (
     CONSTRAINT fk_author
         FOREIGN KEY (author_id)
             REFERENCES users(id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner ON ITEMS (OWNER_ID, ID);
+CREATE INDEX IF NOT EXISTS idx_items_request ON ITEMS (REQUEST_ID);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON BOOKINGS (BOOKER_ID, START_TIME);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_end ON BOOKINGS (BOOKER_ID, END_TIME);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status ON BOOKINGS (BOOKER_ID, STATUS, START_TIME);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_item ON BOOKINGS (BOOKER_ID, ITEM_ID, END_TIME);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON BOOKINGS (ITEM_ID, START_TIME);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON BOOKINGS (ITEM_ID, END_TIME);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status ON BOOKINGS (ITEM_ID, STATUS, START_TIME);
+CREATE INDEX IF NOT EXISTS idx_bookings_end ON BOOKINGS (END_TIME);
+
+CREATE INDEX IF NOT EXISTS idx_archive_booker_start ON BOOKINGS_ARCHIVE (BOOKER_ID, START_TIME);
+CREATE INDEX IF NOT EXISTS idx_archive_booker_end ON BOOKINGS_ARCHIVE (BOOKER_ID, END_TIME);
+CREATE INDEX IF NOT EXISTS idx_archive_booker_status ON BOOKINGS_ARCHIVE (BOOKER_ID, STATUS, START_TIME);
+CREATE INDEX IF NOT EXISTS idx_archive_booker_item ON BOOKINGS_ARCHIVE (BOOKER_ID, ITEM_ID, END_TIME);
+CREATE INDEX IF NOT EXISTS idx_archive_item_start ON BOOKINGS_ARCHIVE (ITEM_ID, START_TIME);
+CREATE INDEX IF NOT EXISTS idx_archive_item_end ON BOOKINGS_ARCHIVE (ITEM_ID, END_TIME);
+CREATE INDEX IF NOT EXISTS idx_archive_item_status ON BOOKINGS_ARCHIVE (ITEM_ID, STATUS, START_TIME);
+
+DROP INDEX IF EXISTS idx_comments_item;
+CREATE INDEX IF NOT EXISTS idx_comments_item_id ON COMMENTS (ITEM_ID, ID);
+
+CREATE INDEX IF NOT EXISTS idx_requests_requestor ON REQUESTS (REQUESTOR_ID, CREATED);
+DROP INDEX IF EXISTS idx_requests_created;
+CREATE INDEX IF NOT EXISTS idx_requests_created_id ON REQUESTS (CREATED, ID);
@@ -0,0 +1,80 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+class ItemViewBenchmarkTests {
+    private static final long OWNER = 7001;
+    private static final int ITEMS = 50;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Value("${shareit.item-view.parallel}")
+    private boolean parallel;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'owner', 'owner@bench.test'), " +
+                "(?, 'booker', 'booker@bench.test')", OWNER, OWNER + 1);
+        for (long item = OWNER; item < OWNER + ITEMS; item++) {
+            jdbcTemplate.update("insert into items (id, name, description, is_available, owner_id) " +
+                    "values (?, 'bench', 'bench item', true, ?)", item, OWNER);
+            for (int i = 0; i < 20; i++) {
+                jdbcTemplate.update("insert into bookings (id, item_id, booker_id, status, start_time, end_time) " +
+                                "values (?, ?, ?, 'APPROVED', DATEADD('DAY', ?, CURRENT_TIMESTAMP), " +
+                                "DATEADD('DAY', ?, CURRENT_TIMESTAMP))",
+                        item * 100 + i, item, OWNER + 1, i * 2 - 20, i * 2 - 19);
+            }
+            for (int i = 0; i < 5; i++) {
+                jdbcTemplate.update("insert into comments (text, item_id, author_id, created) " +
+                        "values ('bench comment', ?, ?, CURRENT_TIMESTAMP)", item, OWNER + 1);
+            }
+        }
+    }
+
+    @AfterEach
+    void clean() {
+        jdbcTemplate.update("delete from comments where author_id = ?", OWNER + 1);
+        jdbcTemplate.update("delete from bookings where booker_id = ?", OWNER + 1);
+        jdbcTemplate.update("delete from items where owner_id = ?", OWNER);
+        jdbcTemplate.update("delete from users where id in (?, ?)", OWNER, OWNER + 1);
+    }
+
+    @Test
+    void measureItemView() {
+        for (int i = 0; i < WARMUP; i++) {
+            itemService.findAll(OWNER);
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            assertEquals(ITEMS, itemService.findAll(OWNER).size());
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        log.info("GET /items {}", String.format("%-10s mean %8.1f us  p50 %8.1f us  p99 %8.1f us",
+                parallel ? "parallel" : "sequential",
+                Arrays.stream(samples).average().orElse(0) / 1000,
+                samples[samples.length / 2] / 1000.0,
+                samples[(int) (samples.length * 0.99)] / 1000.0));
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Parallel item views against a pool smaller than the number of concurrent callers: if a caller held its
+ * connection while waiting for the workers, the workers would time out acquiring one.
+ */
+@SpringBootTest(properties = {
+        "shareit.item-view.parallel=true",
+        "shareit.item-view.threads=4",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=1000"
+})
+class ItemViewPoolTests {
+    private static final long OWNER = 8001;
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'owner', 'owner@pool.test'), " +
+                "(?, 'booker', 'booker@pool.test')", OWNER, OWNER + 1);
+        for (long item = OWNER; item < OWNER + 5; item++) {
+            jdbcTemplate.update("insert into items (id, name, description, is_available, owner_id) " +
+                    "values (?, 'pool', 'pool item', true, ?)", item, OWNER);
+            jdbcTemplate.update("insert into bookings (id, item_id, booker_id, status, start_time, end_time) " +
+                    "values (?, ?, ?, 'APPROVED', DATEADD('DAY', -2, CURRENT_TIMESTAMP), " +
+                    "DATEADD('DAY', -1, CURRENT_TIMESTAMP))", item, item, OWNER + 1);
+            jdbcTemplate.update("insert into comments (text, item_id, author_id, created) " +
+                    "values ('pool comment', ?, ?, CURRENT_TIMESTAMP)", item, OWNER + 1);
+        }
+    }
+
+    @AfterEach
+    void clean() {
+        jdbcTemplate.update("delete from comments where author_id = ?", OWNER + 1);
+        jdbcTemplate.update("delete from bookings where booker_id = ?", OWNER + 1);
+        jdbcTemplate.update("delete from items where owner_id = ?", OWNER);
+        jdbcTemplate.update("delete from users where id in (?, ?)", OWNER, OWNER + 1);
+    }
+
+    @Test
+    void concurrentParallelViewsDoNotExhaustThePool() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS * 25; i++) {
+                results.add(callers.submit(() -> itemService.findAll(OWNER).size()));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(5, result.get());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
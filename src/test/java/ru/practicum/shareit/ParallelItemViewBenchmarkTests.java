@@ -0,0 +1,9 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.test.context.TestPropertySource;
+
+@Tag("benchmark")
+@TestPropertySource(properties = "shareit.item-view.parallel=true")
+class ParallelItemViewBenchmarkTests extends ItemViewBenchmarkTests {
+}
@@ -0,0 +1,360 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingArchiver;
+import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemVersionRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs each repository query against seeded data, captures the SQL and bind values that actually reach the
+ * DataSource and asserts that none of the captured statements plans a table scan or an unconditioned index walk.
+ * The few queries that must read a table in full are listed in {@link #fullReads} with their reason.
+ */
+@SpringBootTest
+@Transactional
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTests {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final LocalDateTime FIRST = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime LAST = LocalDateTime.of(9999, 1, 1, 0, 0);
+    private static final PageRequest PAGE = PageRequest.of(0, 20);
+    private static final List<Long> IDS = List.of(7L, 57L, 107L);
+    private static final List<BookingStatus> OPEN = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    /**
+     * A table H2 reads in full: a {@code tableScan}, or an index walked without a condition, e.g. the primary key in
+     * ORDER BY id order. Group 1 is the table.
+     */
+    private static final Pattern FULL_READ =
+            Pattern.compile("\"PUBLIC\"\\.\"(\\w+)\" \"\\w+\"\\s+/\\* PUBLIC\\.[\\w.]+ \\*/");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private BookingRepository bookings;
+    @Autowired
+    private ItemRepository items;
+    @Autowired
+    private ItemVersionRepository versions;
+    @Autowired
+    private ItemRequestRepository requests;
+    @Autowired
+    private UserRepository users;
+    @Autowired
+    private CommentRepository comments;
+    @Autowired
+    private BookingArchiver archiver;
+
+    @BeforeEach
+    void seed() {
+        List<Object[]> users = new ArrayList<>();
+        for (long i = 1; i <= 50; i++) {
+            users.add(new Object[]{i, "user" + i, "user" + i + "@plan.test"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+        List<Object[]> requests = new ArrayList<>();
+        for (long i = 1; i <= 500; i++) {
+            requests.add(new Object[]{i, "request" + i, i % 50 + 1, i});
+        }
+        jdbcTemplate.batchUpdate("insert into requests (id, description, requestor_id, created) " +
+                "values (?, ?, ?, DATEADD('HOUR', ?, TIMESTAMP '2029-01-01 00:00:00'))", requests);
+        List<Object[]> items = new ArrayList<>();
+        for (long i = 1; i <= 200; i++) {
+            items.add(new Object[]{i, "item" + i, "description" + i, true, i % 50 + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, is_available, owner_id) " +
+                "values (?, ?, ?, ?, ?)", items);
+        List<Object[]> bookings = new ArrayList<>();
+        for (long i = 1; i <= 2000; i++) {
+            bookings.add(new Object[]{i, i % 200 + 1, i % 49 + 1, i % 3 == 0 ? "WAITING" : "APPROVED", i, i + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (id, item_id, booker_id, status, start_time, end_time) " +
+                "values (?, ?, ?, ?, DATEADD('HOUR', ?, TIMESTAMP '2029-01-01 00:00:00'), " +
+                "DATEADD('HOUR', ?, TIMESTAMP '2029-01-01 00:00:00'))", bookings);
+        List<Object[]> archived = new ArrayList<>();
+        for (long i = 1; i <= 2000; i++) {
+            archived.add(new Object[]{10000 + i, i % 200 + 1, i % 49 + 1, i % 4 == 0 ? "REJECTED" : "APPROVED", i,
+                    i + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings_archive " +
+                "(id, item_id, booker_id, status, start_time, end_time) " +
+                "values (?, ?, ?, ?, DATEADD('HOUR', ?, TIMESTAMP '2028-01-01 00:00:00'), " +
+                "DATEADD('HOUR', ?, TIMESTAMP '2028-01-01 00:00:00'))", archived);
+        List<Object[]> comments = new ArrayList<>();
+        for (long i = 1; i <= 500; i++) {
+            comments.add(new Object[]{i, "comment" + i, i % 200 + 1, i % 50 + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into comments (id, text, item_id, author_id, created) " +
+                "values (?, ?, ?, ?, TIMESTAMP '2029-06-01 00:00:00')", comments);
+    }
+
+    Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                query("findArchivedById", () -> bookings.findArchivedById(10007)),
+                query("findAllByBookerIdOrderByStartDescIdDesc",
+                        () -> bookings.findAllByBookerIdOrderByStartDescIdDesc(7, LAST, Long.MAX_VALUE, PAGE)),
+                query("findByBookerCurrent",
+                        () -> bookings.findByBookerCurrent(7, NOW, FIRST, Long.MIN_VALUE, PAGE)),
+                query("findByBookerPast",
+                        () -> bookings.findByBookerPast(7, NOW, FIRST, Long.MIN_VALUE, PAGE)),
+                query("findByBookerFuture",
+                        () -> bookings.findByBookerFuture(7, NOW, LAST, Long.MAX_VALUE, PAGE)),
+                query("findByBookerAndStatus",
+                        () -> bookings.findByBookerAndStatus(7, BookingStatus.WAITING, LAST, Long.MAX_VALUE, PAGE)),
+                query("findHistoryByBookerAndStatus",
+                        () -> bookings.findHistoryByBookerAndStatus(7, "REJECTED", LAST, Long.MAX_VALUE, PAGE)),
+                query("findByItemOwnerIdOrderByStartDescIdDesc",
+                        () -> bookings.findByItemOwnerIdOrderByStartDescIdDesc(7, LAST, Long.MAX_VALUE, PAGE)),
+                query("findByItemOwnerCurrent",
+                        () -> bookings.findByItemOwnerCurrent(7, NOW, FIRST, Long.MIN_VALUE, PAGE)),
+                query("findByItemOwnerPast",
+                        () -> bookings.findByItemOwnerPast(7, NOW, LAST, Long.MAX_VALUE, PAGE)),
+                query("findByItemOwnerFuture",
+                        () -> bookings.findByItemOwnerFuture(7, NOW, LAST, Long.MAX_VALUE, PAGE)),
+                query("findByItemOwnerAndStatus",
+                        () -> bookings.findByItemOwnerAndStatus(7, BookingStatus.WAITING, LAST, Long.MAX_VALUE,
+                                PAGE)),
+                query("findHistoryByItemOwnerAndStatus",
+                        () -> bookings.findHistoryByItemOwnerAndStatus(7, "REJECTED", LAST, Long.MAX_VALUE, PAGE)),
+                query("countByBookerStates", () -> bookings.countByBookerStates(7, NOW).getAllCount()),
+                query("countByItemOwnerStates", () -> bookings.countByItemOwnerStates(7, NOW).getAllCount()),
+                query("findByItemIdAndStatusInAndEndAfter",
+                        () -> bookings.findByItemIdAndStatusInAndEndAfter(57, OPEN, NOW)),
+                query("findByItemIdInAndStatusInAndEndAfter",
+                        () -> bookings.findByItemIdInAndStatusInAndEndAfter(IDS, OPEN, NOW)),
+                query("findItemIdsBookedBetween",
+                        () -> bookings.findItemIdsBookedBetween(IDS, BookingStatus.APPROVED,
+                                LocalDateTime.of(2029, 6, 1, 0, 0), NOW)),
+                query("lockByOwnerAndStatus",
+                        () -> bookings.lockByOwnerAndStatus(8, IDS, BookingStatus.WAITING)),
+                query("lockByOwnerItemAndStatus",
+                        () -> bookings.lockByOwnerItemAndStatus(8, 57, BookingStatus.WAITING)),
+                query("existsPastBooking", () -> bookings.existsPastBooking(7, 57, NOW)),
+                query("findLastAndNextBookings", () -> bookings.findLastAndNextBookings(IDS, NOW, 8)),
+                query("BookingArchiver", () -> archiver.archive()),
+                query("findAllByOwnerIdOrderByIdAsc", () -> items.findAllByOwnerIdOrderByIdAsc(7)),
+                query("findAllByRequestIdInOrderByIdAsc", () -> items.findAllByRequestIdInOrderByIdAsc(IDS)),
+                query("findAllByRequestorIdOrderByCreatedDescIdDesc",
+                        () -> requests.findAllByRequestorIdOrderByCreatedDescIdDesc(7)),
+                query("findTag", () -> versions.findTag(57, 8, NOW)),
+                query("findEmailsIn", () -> users.findEmailsIn(List.of("user7@plan.test", "nobody@plan.test"))),
+                query("findVersionById", () -> users.findVersionById(7)),
+                query("findLatestComments", () -> comments.findLatestComments(IDS, 10)),
+                query("findByItemIdAndIdLessThanOrderByIdDesc",
+                        () -> comments.findByItemIdAndIdLessThanOrderByIdDesc(57, 400, PAGE))
+        );
+    }
+
+    /**
+     * Queries allowed to read one table in full, each with the reason; everything else they touch must still seek.
+     */
+    Stream<Arguments> fullReads() {
+        return Stream.of(
+                fullRead("findAllByAvailableTrue", "ITEMS",
+                        "loads every available item once to build the in-memory search index",
+                        () -> items.findAllByAvailableTrue()),
+                fullRead("searchByText", "ITEMS",
+                        "a leading-wildcard LIKE cannot seek a B-tree; only used with shareit.search.index-enabled=false",
+                        () -> items.searchByText("item7", PAGE)),
+                fullRead("searchFreeByText", "ITEMS",
+                        "a leading-wildcard LIKE cannot seek a B-tree; only used with shareit.search.index-enabled=false",
+                        () -> items.searchFreeByText("item7", NOW, LAST, PAGE)),
+                fullRead("streamByText", "ITEMS",
+                        "a leading-wildcard LIKE cannot seek a B-tree; only used with shareit.search.index-enabled=false",
+                        () -> {
+                            try (Stream<?> stream = items.streamByText("item7", PAGE)) {
+                                stream.count();
+                            }
+                        }),
+                fullRead("findAllByRequestorIdNotOrderByCreatedDescIdDesc", "REQUESTS",
+                        "<> cannot seek; PostgreSQL pages backwards through idx_requests_created_id, H2 sorts a scan",
+                        () -> requests.findAllByRequestorIdNotOrderByCreatedDescIdDesc(7, PAGE))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void queryUsesIndex(String method, Runnable query) throws SQLException {
+        for (String plan : plans(method, query)) {
+            assertFalse(FULL_READ.matcher(plan).find(), method + " reads a whole table or index:\n" + plan);
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("fullReads")
+    void fullReadStaysOnOneTable(String method, String table, String reason, Runnable query) throws SQLException {
+        for (String plan : plans(method, query)) {
+            Matcher read = FULL_READ.matcher(plan);
+            while (read.find()) {
+                assertEquals(table, read.group(1), method + " may only read " + table + " in full (" + reason
+                        + "):\n" + plan);
+            }
+        }
+    }
+
+    private List<String> plans(String method, Runnable query) throws SQLException {
+        List<CapturedStatement> statements = dataSource.unwrap(StatementCapture.class).record(query);
+        assertFalse(statements.isEmpty(), method + " issued no SQL");
+        List<String> plans = new ArrayList<>();
+        for (CapturedStatement statement : statements) {
+            plans.add(String.join("\n", jdbcTemplate.query("explain " + statement.getSql(), statement::bind,
+                    (rs, row) -> rs.getString(1))));
+        }
+        return plans;
+    }
+
+    private static Arguments query(String method, Runnable query) {
+        return Arguments.of(method, query);
+    }
+
+    private static Arguments fullRead(String method, String table, String reason, Runnable query) {
+        return Arguments.of(method, table, reason, query);
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+        @Bean
+        static BeanPostProcessor statementCapturing() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource && "dataSource".equals(beanName)) {
+                        return new StatementCapture((DataSource) bean);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Records the SQL text and positional bind values of every statement executed while {@link #record} runs.
+     */
+    static class StatementCapture extends DelegatingDataSource {
+        private final List<CapturedStatement> statements = new CopyOnWriteArrayList<>();
+        private volatile boolean recording;
+
+        StatementCapture(DataSource target) {
+            super(target);
+        }
+
+        List<CapturedStatement> record(Runnable action) {
+            statements.clear();
+            recording = true;
+            try {
+                action.run();
+            } finally {
+                recording = false;
+            }
+            return new ArrayList<>(statements);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = obtainTargetDataSource().getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (method.getName().equals("prepareStatement")) {
+                            return prepared((PreparedStatement) result, (String) args[0]);
+                        }
+                        if (method.getName().equals("createStatement")) return plain((Statement) result);
+                        return result;
+                    });
+        }
+
+        private PreparedStatement prepared(PreparedStatement target, String sql) {
+            Map<Integer, Object> params = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("clearParameters")) params.clear();
+                        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                            params.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                        }
+                        if (name.startsWith("execute") && recording) {
+                            statements.add(new CapturedStatement(sql, new ArrayList<>(params.values())));
+                        }
+                        return invoke(target, method, args);
+                    });
+        }
+
+        private Statement plain(Statement target) {
+            return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Statement.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("execute") && recording && args != null) {
+                            statements.add(new CapturedStatement((String) args[0], List.of()));
+                        }
+                        return invoke(target, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    static class CapturedStatement {
+        private final String sql;
+        private final List<Object> params;
+
+        CapturedStatement(String sql, List<Object> params) {
+            this.sql = sql;
+            this.params = params;
+        }
+
+        String getSql() {
+            return sql;
+        }
+
+        void bind(PreparedStatement statement) throws SQLException {
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.replica.ReadYourWritesPins;
+import ru.practicum.shareit.replica.Replica;
+import ru.practicum.shareit.replica.ReplicaHealthMonitor;
+import ru.practicum.shareit.replica.ReplicaSelector;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles({"test", "replicas"})
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shareit-primary",
+        "shareit.replicas.check-interval=PT1H",
+        "shareit.replicas.initial-check-delay=PT1H"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ReplicaSelector selector;
+    @Autowired
+    private ReplicaHealthMonitor monitor;
+    @Autowired
+    private ReadYourWritesPins pins;
+
+    @BeforeEach
+    void probe() {
+        monitor.check();
+    }
+
+    @AfterEach
+    void reset() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyTransactionReadsReplica() {
+        assertEquals("SHAREIT-REPLICA", database(true));
+    }
+
+    @Test
+    void writeTransactionUsesPrimary() {
+        assertEquals("SHAREIT-PRIMARY", database(false));
+    }
+
+    @Test
+    void pinnedUserReadsPrimary() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.40");
+        request.addHeader("X-Sharer-User-Id", "42");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        assertEquals("SHAREIT-REPLICA", database(true));
+        pins.pin(request);
+        assertEquals("SHAREIT-PRIMARY", database(true));
+    }
+
+    @Test
+    void userUpdateWithoutSharerIdPinsTheFollowingReads() throws Exception {
+        jdbcTemplate.update("insert into users (id, name, email) values (541, 'pinned', 'pinned@replica.test')");
+        try {
+            mockMvc.perform(patch("/users/541")
+                            .with(from("10.0.0.41"))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\": \"renamed\"}"))
+                    .andExpect(status().isOk());
+            MockHttpServletRequest read = new MockHttpServletRequest();
+            read.setRemoteAddr("10.0.0.41");
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(read));
+            assertEquals("SHAREIT-PRIMARY", database(true));
+            read.addHeader("X-Sharer-User-Id", "541");
+            assertEquals("SHAREIT-PRIMARY", database(true));
+
+            MockHttpServletRequest other = new MockHttpServletRequest();
+            other.setRemoteAddr("10.0.0.42");
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(other));
+            assertEquals("SHAREIT-REPLICA", database(true));
+        } finally {
+            jdbcTemplate.update("delete from users where id = 541");
+        }
+    }
+
+    @Test
+    void downReplicaFailsOverToPrimary() {
+        selector.getReplicas().forEach(replica -> replica.markDown(new SQLException("probe failed")));
+        assertEquals("SHAREIT-PRIMARY", database(true));
+    }
+
+    @Test
+    void uncheckedReplicaIsNotSelected() {
+        Replica replica = new Replica("fresh", new DriverManagerDataSource("jdbc:h2:mem:shareit-replica"));
+        ReplicaSelector fresh = new ReplicaSelector(List.of(replica), pins, Duration.ofSeconds(5));
+        assertFalse(replica.isHealthy());
+        assertTrue(fresh.select().isEmpty());
+        replica.markUp(Duration.ZERO);
+        assertEquals(replica, fresh.select().orElseThrow());
+    }
+
+    @Test
+    void closeShutsReplicaPools() {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:shareit-replica");
+        ReplicaSelector owner = new ReplicaSelector(List.of(new Replica("closing", pool)), pins, Duration.ofSeconds(5));
+        owner.close();
+        assertTrue(pool.isClosed());
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    private String database(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> jdbcTemplate.queryForObject("select upper(database())", String.class));
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.metrics.SqlBudgetViolations;
+import ru.practicum.shareit.metrics.SqlDebugHeaderAdvice;
+import ru.practicum.shareit.metrics.SqlStatementCounter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"shareit.sql.strict=true", "shareit.sql.debug-headers=true"})
+@AutoConfigureMockMvc
+class StatementCountTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private SqlBudgetViolations violations;
+    @Autowired
+    @Qualifier("itemViewExecutor")
+    private ThreadPoolTaskExecutor itemViewExecutor;
+
+    @BeforeEach
+    void seed() {
+        violations.drain();
+        jdbcTemplate.update("insert into users (id, name, email) values " +
+                "(901, 'owner', 'owner@count.test'), (902, 'booker', 'booker@count.test')");
+        for (long item = 901; item <= 905; item++) {
+            jdbcTemplate.update("insert into items (id, name, description, is_available, owner_id) " +
+                    "values (?, 'drill', 'power drill', true, 901)", item);
+            jdbcTemplate.update("insert into comments (id, text, item_id, author_id, created) " +
+                    "values (?, 'great drill', ?, 902, TIMESTAMP '2020-01-01 00:00:00')", item, item);
+            for (long booking = 0; booking < 4; booking++) {
+                jdbcTemplate.update("insert into bookings (id, item_id, booker_id, status, start_time, end_time) " +
+                                "values (?, ?, 902, 'APPROVED', DATEADD('DAY', ?, CURRENT_TIMESTAMP), " +
+                                "DATEADD('DAY', ?, CURRENT_TIMESTAMP))",
+                        item * 10 + booking, item, booking * 2 - 4, booking * 2 - 3);
+            }
+        }
+    }
+
+    @AfterEach
+    void clean() {
+        jdbcTemplate.update("delete from comments where author_id = 902");
+        jdbcTemplate.update("delete from bookings where booker_id = 902");
+        jdbcTemplate.update("delete from items where owner_id = 901");
+        jdbcTemplate.update("delete from users where id in (901, 902)");
+        violations.assertNone();
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @CsvSource({
+            "902, /bookings?state=ALL",
+            "902, /bookings?state=PAST",
+            "901, /bookings/owner?state=ALL",
+            "901, /bookings/owner?state=FUTURE",
+            "901, /bookings/9010",
+            "902, /bookings/summary",
+            "901, /bookings/owner/summary",
+            "901, /items",
+            "901, /items/901",
+            "902, /items/901/comments",
+            "901, /requests",
+            "901, /requests/all",
+            "901, /users",
+            "901, /users/902"
+    })
+    void endpointStaysWithinSqlBudget(long userId, String uri) throws Exception {
+        mockMvc.perform(get(uri).header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(SqlDebugHeaderAdvice.COUNT_HEADER))
+                .andExpect(header().exists(SqlDebugHeaderAdvice.TIME_HEADER));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({"/items/901", "/users/902"})
+    void repeatedPollIsNotModified(String uri) throws Exception {
+        String etag = mockMvc.perform(get(uri).header("X-Sharer-User-Id", 901))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(uri).header("X-Sharer-User-Id", 901).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void countsJdbcTemplateStatementsAlongsideHibernate() throws Exception {
+        mockMvc.perform(get("/items/901").header("X-Sharer-User-Id", 901));
+        mockMvc.perform(get("/items/901").header("X-Sharer-User-Id", 901))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlDebugHeaderAdvice.COUNT_HEADER, "3"));
+    }
+
+    @Test
+    void countsStatementsRunOnItemViewWorkers() throws Exception {
+        SqlStatementCounter.start();
+        try {
+            itemViewExecutor.submit(() -> jdbcTemplate.queryForObject("select count(*) from items", Long.class))
+                    .get();
+            assertEquals(1, SqlStatementCounter.current().getCount());
+        } finally {
+            SqlStatementCounter.stop();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingBatchTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Item 551 of owner 551 can be booked by booker 552.
+     */
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into users (id, name, email) values " +
+                "(551, 'owner', 'owner@batch.test'), (552, 'booker', 'booker@batch.test')");
+        jdbcTemplate.update("insert into items (id, name, description, is_available, owner_id) " +
+                "values (551, 'tent', 'two person tent', true, 551)");
+    }
+
+    @AfterEach
+    void clean() {
+        jdbcTemplate.update("delete from bookings where item_id = 551");
+        jdbcTemplate.update("delete from items where id = 551");
+        jdbcTemplate.update("delete from users where id in (551, 552)");
+    }
+
+    @Test
+    void nullEntryIsRejectedOnItsOwn() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        String booking = "{\"itemId\": 551, \"start\": \"" + start + "\", \"end\": \"" + start.plusDays(1) + "\"}";
+        JsonNode results = objectMapper.readTree(mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 552)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[null, " + booking + "]"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString());
+        assertEquals(2, results.size());
+        assertEquals("Booking must not be null", results.get(0).get("error").asText());
+        assertTrue(results.get(0).get("booking").isNull());
+        assertEquals(551, results.get(1).get("booking").get("item").get("id").asLong());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from bookings where item_id = 551",
+                Integer.class));
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class BookingBulkStatusTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Item 801 of owner 801 has bookings 801-803 waiting and 804 already approved; item 802 belongs to booker 802.
+     */
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into users (id, name, email) values " +
+                "(801, 'owner', 'owner@bulk.test'), (802, 'booker', 'booker@bulk.test')");
+        jdbcTemplate.update("insert into items (id, name, description, is_available, owner_id) " +
+                "values (801, 'kayak', 'single kayak', true, 801), (802, 'paddle', 'spare paddle', true, 802)");
+        for (long id = 801; id <= 805; id++) {
+            jdbcTemplate.update("insert into bookings (id, item_id, booker_id, status, start_time, end_time) " +
+                            "values (?, ?, 802, ?, DATEADD('DAY', ?, CURRENT_TIMESTAMP), " +
+                            "DATEADD('DAY', ?, CURRENT_TIMESTAMP))",
+                    id, id == 805 ? 802 : 801, id >= 804 ? "APPROVED" : "WAITING", id - 790, id - 789);
+        }
+    }
+
+    @Test
+    void changesOnlyWaitingBookingsOfTheOwner() throws Exception {
+        JsonNode changed = bulk(true, "{\"bookingIds\": [801, 803, 804, 805]}");
+        assertEquals(List.of(801L, 803L), ids(changed));
+        changed.forEach(booking -> assertEquals("APPROVED", booking.get("status").asText()));
+        assertEquals(List.of("APPROVED", "WAITING", "APPROVED", "APPROVED", "APPROVED"), statuses());
+    }
+
+    @Test
+    void repeatedCallChangesNothing() throws Exception {
+        assertEquals(List.of(801L, 802L, 803L), ids(bulk(false, "{\"itemId\": 801}")));
+        assertEquals(List.of(), ids(bulk(true, "{\"itemId\": 801}")));
+        assertEquals(List.of("REJECTED", "REJECTED", "REJECTED", "APPROVED", "APPROVED"), statuses());
+    }
+
+    private JsonNode bulk(boolean approved, String body) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(patch("/bookings/bulk")
+                        .header("X-Sharer-User-Id", 801)
+                        .param("approved", String.valueOf(approved))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString());
+    }
+
+    private List<String> statuses() {
+        return jdbcTemplate.queryForList("select status from bookings where id between 801 and 805 order by id",
+                String.class);
+    }
+
+    private static List<Long> ids(JsonNode array) {
+        List<Long> ids = new ArrayList<>();
+        array.forEach(node -> ids.add(node.get("id").asLong()));
+        return ids;
+    }
+}
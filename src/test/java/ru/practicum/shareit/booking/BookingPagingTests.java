@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class BookingPagingTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Booker 702 has twelve bookings, four of them archived; all share start times pairwise so the id
+     * tie-breaker matters. Descending order is therefore ids 712, 711, ..., 701.
+     */
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into users (id, name, email) values " +
+                "(701, 'owner', 'owner@paging.test'), (702, 'booker', 'booker@paging.test')");
+        jdbcTemplate.update("insert into items (id, name, description, is_available, owner_id) " +
+                "values (701, 'ladder', 'tall ladder', true, 701)");
+        for (long id = 701; id <= 712; id++) {
+            String table = id <= 704 ? "bookings_archive" : "bookings";
+            jdbcTemplate.update("insert into " + table + " (id, item_id, booker_id, status, start_time, end_time) " +
+                            "values (?, 701, 702, 'APPROVED', DATEADD('DAY', ?, TIMESTAMP '2020-01-01 00:00:00'), " +
+                            "DATEADD('DAY', ?, TIMESTAMP '2020-01-01 00:00:00'))",
+                    id, (id - 701) / 2, (id - 701) / 2 + 1);
+        }
+    }
+
+    @Test
+    void offsetStartsAtRequestedRowEvenWhenNotAPageMultiple() throws Exception {
+        assertEquals(List.of(707L, 706L, 705L), ids(page("/bookings?from=5&size=3")));
+        assertEquals(List.of(707L, 706L, 705L, 704L, 703L, 702L, 701L), ids(page("/bookings?from=5&size=10")));
+    }
+
+    @Test
+    void cursorWalksEveryBookingOnceAcrossLiveAndArchivedRows() throws Exception {
+        List<Long> seen = new ArrayList<>();
+        MockHttpServletResponse response = page("/bookings?size=5");
+        seen.addAll(ids(response));
+        while (response.getHeader(BookingCursor.HEADER) != null) {
+            response = page("/bookings?size=5&cursor=" + response.getHeader(BookingCursor.HEADER));
+            seen.addAll(ids(response));
+        }
+        assertEquals(List.of(712L, 711L, 710L, 709L, 708L, 707L, 706L, 705L, 704L, 703L, 702L, 701L), seen);
+    }
+
+    @Test
+    void ascendingStatesContinueForwardFromCursor() throws Exception {
+        MockHttpServletResponse first = page("/bookings?state=PAST&size=4");
+        assertEquals(List.of(701L, 702L, 703L, 704L), ids(first));
+        MockHttpServletResponse second = page("/bookings?state=PAST&size=20&cursor=" +
+                first.getHeader(BookingCursor.HEADER));
+        assertEquals(List.of(705L, 706L, 707L, 708L, 709L, 710L, 711L, 712L), ids(second));
+        assertNull(second.getHeader(BookingCursor.HEADER));
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/bookings?cursor=not-a-cursor").header("X-Sharer-User-Id", 702))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MockHttpServletResponse page(String uri) throws Exception {
+        return mockMvc.perform(get(uri).header("X-Sharer-User-Id", 702))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+    }
+
+    private List<Long> ids(MockHttpServletResponse response) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode booking : objectMapper.readTree(response.getContentAsString())) {
+            ids.add(booking.get("id").asLong());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.booking.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingEventPublisherTests {
+    private static final long BOOKER = 401;
+    private static final long OWNER = 402;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deliversOnlyAfterCommit() throws Exception {
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'owner', 'owner@events.test')", OWNER);
+        try {
+            assertDeliveredOnlyAfterCommit();
+        } finally {
+            jdbcTemplate.update("delete from users where id = ?", OWNER);
+        }
+    }
+
+    private void assertDeliveredOnlyAfterCommit() throws Exception {
+        MockHttpServletResponse stream = mockMvc.perform(get("/bookings/events").header("X-Sharer-User-Id", OWNER))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(event(1, BookingStatus.REJECTED));
+            status.setRollbackOnly();
+        });
+        transaction.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(event(2, BookingStatus.APPROVED));
+            assertEquals(0, stream.getContentAsByteArray().length, "sent before commit");
+        });
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!stream.getContentAsString().contains("APPROVED") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        String sent = stream.getContentAsString();
+        assertTrue(sent.contains("event:APPROVED"), sent);
+        assertFalse(sent.contains("REJECTED"), "rolled back event was sent: " + sent);
+    }
+
+    @Test
+    void disconnectsSubscriberWhoseBufferOverflows() {
+        List<Runnable> pending = new ArrayList<>();
+        BookingEventPublisher publisher = new BookingEventPublisher(pending::add, 2, Duration.ofMinutes(1),
+                Duration.ofSeconds(10));
+        publisher.subscribe(OWNER);
+        publisher.publish(event(1, BookingStatus.WAITING));
+        publisher.publish(event(2, BookingStatus.WAITING));
+        assertEquals(1, publisher.subscribers(OWNER));
+
+        publisher.publish(event(3, BookingStatus.WAITING));
+        assertEquals(0, publisher.subscribers(OWNER));
+        assertEquals(1, pending.size());
+        pending.get(0).run();
+    }
+
+    private static BookingEvent event(long id, BookingStatus status) {
+        return new BookingEvent(BOOKER, OWNER, new BookingResponseDto(id, null, null, null, null, status));
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingIntervalIndexTests {
+    private static final LocalDateTime BASE = LocalDateTime.now().plusDays(1);
+
+    private BookingRepository bookingRepository;
+    private BookingIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        index = new BookingIntervalIndex(bookingRepository);
+    }
+
+    @Test
+    void rejectsOverlapHiddenBehindOverlappingStoredBookings() {
+        stored(booking(1, 1, 10), booking(2, 2, 3));
+        assertThrows(BadRequestException.class, () -> index.reserve(1, day(5), day(6)));
+    }
+
+    @Test
+    void acceptsAdjacentWindows() {
+        stored(booking(1, 1, 3), booking(2, 2, 4));
+        assertDoesNotThrow(() -> index.reserve(1, day(4), day(6)));
+        assertThrows(BadRequestException.class, () -> index.reserve(1, day(5), day(7)));
+    }
+
+    @Test
+    void releasedBookingFreesItsWindow() {
+        stored(booking(1, 1, 3));
+        assertThrows(BadRequestException.class, () -> index.reserve(1, day(2), day(4)));
+        index.release(1, 1);
+        assertDoesNotThrow(() -> index.reserve(1, day(2), day(4)));
+    }
+
+    @Test
+    void pruneDropsEndedIntervalsBehindOngoingOnes() {
+        LocalDateTime now = LocalDateTime.now();
+        stored(new Booking(1L, now.minusDays(5), now.plusDays(5), null, null, BookingStatus.APPROVED),
+                new Booking(2L, now.minusDays(4), now.minusDays(3), null, null, BookingStatus.APPROVED));
+        index.reserve(1, day(10), day(11));
+        assertEquals(2, index.held(1));
+    }
+
+    @Test
+    void evictsEmptyTimelinesAndReloadsThemOnDemand() {
+        stored();
+        BookingIntervalIndex.Interval interval = index.reserve(1, day(1), day(2));
+        index.bind(1, interval, 7);
+        index.release(1, 7);
+        index.evictIdle();
+        assertEquals(0, index.size());
+        stored(booking(8, 1, 2));
+        assertThrows(BadRequestException.class, () -> index.reserve(1, day(1), day(2)));
+    }
+
+    @Test
+    void concurrentReservationsOfOneWindowAdmitExactlyOne() throws Exception {
+        stored();
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int offset = i % 2;
+            Callable<Boolean> attempt = () -> {
+                start.await();
+                try {
+                    index.reserve(1, day(1).plusHours(offset), day(3).plusHours(offset));
+                    return true;
+                } catch (BadRequestException e) {
+                    return false;
+                }
+            };
+            results.add(executor.submit(attempt));
+        }
+        start.countDown();
+        int accepted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) accepted++;
+        }
+        executor.shutdown();
+        assertEquals(1, accepted);
+    }
+
+    @Test
+    void nearestPrecedingReservationDecidesOverlap() {
+        stored(booking(1, 1, 2), booking(2, 4, 5));
+        index.reserve(1, day(7), day(9));
+        assertDoesNotThrow(() -> index.reserve(1, day(2), day(4)));
+        assertDoesNotThrow(() -> index.reserve(1, day(5), day(7)));
+        assertThrows(BadRequestException.class, () -> index.reserve(1, day(8), day(10)));
+        assertThrows(BadRequestException.class, () -> index.reserve(1, day(0), day(12)));
+    }
+
+    @Test
+    void preloadSurvivesEvictionWhileLoading() {
+        stored();
+        when(bookingRepository.findByItemIdInAndStatusInAndEndAfter(anyCollection(), anyCollection(), any()))
+                .thenAnswer(invocation -> {
+                    index.evictIdle();
+                    return List.of();
+                });
+        assertDoesNotThrow(() -> index.preload(List.of(1L, 2L)));
+        assertEquals(0, index.size());
+        assertDoesNotThrow(() -> index.reserve(1, day(1), day(2)));
+    }
+
+    private void stored(Booking... bookings) {
+        when(bookingRepository.findByItemIdAndStatusInAndEndAfter(anyLong(), anyCollection(), any()))
+                .thenReturn(List.of(bookings));
+    }
+
+    private static Booking booking(long id, int startDay, int endDay) {
+        return new Booking(id, day(startDay), day(endDay), null, null, BookingStatus.APPROVED);
+    }
+
+    private static LocalDateTime day(int day) {
+        return BASE.plusDays(day);
+    }
+}
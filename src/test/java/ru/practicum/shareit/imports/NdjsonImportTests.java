@@ -0,0 +1,58 @@
+package ru.practicum.shareit.imports;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class NdjsonImportTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void clean() {
+        jdbcTemplate.update("delete from users where email like '%@import.test'");
+    }
+
+    @Test
+    void badRowInsideChunkRejectsOnlyThatRow() throws Exception {
+        StringBuilder rows = new StringBuilder();
+        for (int i = 1; i <= 7; i++) {
+            String name = i == 5 ? "x".repeat(80) : "user" + i;
+            rows.append("{\"name\": \"").append(name).append("\", \"email\": \"user").append(i)
+                    .append("@import.test\"}\n");
+        }
+        JsonNode result = objectMapper.readTree(mockMvc.perform(post("/users/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(rows.toString()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString());
+        assertEquals(6, result.get("imported").asLong());
+        assertEquals(1, result.get("failed").asLong());
+        assertEquals(5, result.get("errors").get(0).get("line").asLong());
+        assertTrue(result.get("errors").get(0).get("error").asText().startsWith("Row rolled back"));
+        assertEquals(List.of("user1", "user2", "user3", "user4", "user6", "user7"), jdbcTemplate.queryForList(
+                "select name from users where email like '%@import.test' order by name", String.class));
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "shareit.item-view.comments-limit=3")
+@AutoConfigureMockMvc
+class ItemCommentsTests {
+    private static final long OWNER = 501;
+    private static final long AUTHOR = 502;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'owner', 'owner@comments.test'), " +
+                "(?, 'author', 'author@comments.test')", OWNER, AUTHOR);
+        for (long item = 501; item <= 503; item++) {
+            jdbcTemplate.update("insert into items (id, name, description, is_available, owner_id) " +
+                    "values (?, 'tent', 'two person tent', true, ?)", item, OWNER);
+        }
+        for (long comment = 5001; comment <= 5005; comment++) {
+            addComment(comment, 501);
+        }
+        addComment(5006, 502);
+    }
+
+    @AfterEach
+    void clean() {
+        jdbcTemplate.update("delete from comments where author_id = ?", AUTHOR);
+        jdbcTemplate.update("delete from items where owner_id = ?", OWNER);
+        jdbcTemplate.update("delete from users where id in (?, ?)", OWNER, AUTHOR);
+    }
+
+    @Test
+    void itemViewEmbedsLatestCommentsNewestFirst() throws Exception {
+        JsonNode item = view("/items/501");
+        assertEquals(List.of(5005L, 5004L, 5003L), ids(item.get("comments")));
+        assertEquals(5, item.get("commentsTotal").asLong());
+    }
+
+    @Test
+    void ownerListCountsCommentsPerItem() throws Exception {
+        JsonNode items = view("/items");
+        assertEquals(3, items.size());
+        for (JsonNode item : items) {
+            long id = item.get("id").asLong();
+            List<Long> expected = id == 501 ? List.of(5005L, 5004L, 5003L) : id == 502 ? List.of(5006L) : List.of();
+            assertEquals(expected, ids(item.get("comments")));
+            assertEquals(id == 501 ? 5 : id == 502 ? 1 : 0, item.get("commentsTotal").asLong());
+        }
+    }
+
+    private void addComment(long id, long itemId) {
+        jdbcTemplate.update("insert into comments (id, text, item_id, author_id, created) " +
+                "values (?, 'roomy', ?, ?, TIMESTAMP '2020-01-01 00:00:00')", id, itemId, AUTHOR);
+    }
+
+    private JsonNode view(String uri) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get(uri).header("X-Sharer-User-Id", OWNER))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString());
+    }
+
+    private static List<Long> ids(JsonNode array) {
+        List<Long> ids = new ArrayList<>();
+        array.forEach(node -> ids.add(node.get("id").asLong()));
+        return ids;
+    }
+}
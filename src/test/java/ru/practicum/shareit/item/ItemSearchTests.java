@@ -0,0 +1,134 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Twelve "lamp N" items ranked by id, the first six booked for the whole of 2030-01-01, plus an item named
+ * exactly "lamp" created last that ranks above all of them. The index limit is five.
+ */
+@SpringBootTest(properties = "shareit.search.limit=5")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemSearchTests {
+    private static final long OWNER = 601;
+    private static final String WINDOW = "&start=2030-01-01T06:00:00&end=2030-01-01T18:00:00";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Long> lamps = new ArrayList<>();
+    private long exact;
+
+    @BeforeAll
+    void seed() throws Exception {
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'owner', 'owner@search.test'), " +
+                "(?, 'booker', 'booker@search.test')", OWNER, OWNER + 1);
+        for (int i = 0; i < 12; i++) {
+            lamps.add(create("lamp " + i));
+        }
+        exact = create("lamp");
+        for (int i = 0; i < 6; i++) {
+            jdbcTemplate.update("insert into bookings (id, item_id, booker_id, status, start_time, end_time) " +
+                    "values (?, ?, ?, 'APPROVED', TIMESTAMP '2030-01-01 00:00:00', " +
+                    "TIMESTAMP '2030-01-02 00:00:00')", 6000 + i, lamps.get(i), OWNER + 1);
+        }
+    }
+
+    @AfterAll
+    void clean() {
+        jdbcTemplate.update("delete from bookings where booker_id = ?", OWNER + 1);
+        jdbcTemplate.update("delete from items where owner_id = ?", OWNER);
+        jdbcTemplate.update("delete from users where id in (?, ?)", OWNER, OWNER + 1);
+    }
+
+    @Test
+    void rankedSearchPutsExactNameFirst() throws Exception {
+        assertEquals(List.of(exact, lamps.get(0), lamps.get(1)), ids(search("/items/search?text=lamp&size=3")));
+    }
+
+    @Test
+    void windowSkipsBookedItemsBeyondTheFirstCandidateChunk() throws Exception {
+        assertEquals(List.of(exact, lamps.get(6), lamps.get(7)),
+                ids(search("/items/search?text=lamp&size=3" + WINDOW)));
+        assertEquals(List.of(lamps.get(8), lamps.get(9)),
+                ids(search("/items/search?text=lamp&from=3&size=2" + WINDOW)));
+    }
+
+    @Test
+    void pagesWithinTheIndexLimitAndRejectsPagesPastIt() throws Exception {
+        assertEquals(List.of(lamps.get(2), lamps.get(3)), ids(search("/items/search?text=lamp&from=3&size=10")));
+        assertEquals(4, ids(search("/items/search?text=lamp&from=1&size=" + Integer.MAX_VALUE)).size());
+        mockMvc.perform(get("/items/search?text=lamp&from=5&size=2").header("X-Sharer-User-Id", OWNER))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamUsesTheSameRankingWithoutTheLimit() throws Exception {
+        MvcResult started = mockMvc.perform(get("/items/search/stream?text=lamp&from=1")
+                        .header("X-Sharer-User-Id", OWNER))
+                .andReturn();
+        List<Long> streamed = new ArrayList<>();
+        for (String line : mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n")) {
+            streamed.add(objectMapper.readTree(line).get("id").asLong());
+        }
+        assertEquals(lamps, streamed);
+    }
+
+    private long create(String name) throws Exception {
+        String body = mockMvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", OWNER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"" + name + "\", \"description\": \"desk light\", \"available\": true}"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private String search(String uri) throws Exception {
+        return mockMvc.perform(get(uri).header("X-Sharer-User-Id", OWNER))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+
+    private List<Long> ids(String body) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode item : objectMapper.readTree(body)) {
+            ids.add(item.get("id").asLong());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.service.BookingArchiver;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemTagTests {
+    private static final long OWNER = 531;
+    private static final long BOOKER = 532;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingArchiver archiver;
+
+    /**
+     * Item 531 has booking 5301 that ended sixty days ago, past the archive retention, booking 5302 starting
+     * tomorrow, and one comment by 532.
+     */
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'owner', 'owner@tag.test'), " +
+                "(?, 'booker', 'booker@tag.test')", OWNER, BOOKER);
+        jdbcTemplate.update("insert into items (id, name, description, is_available, owner_id) " +
+                "values (531, 'canoe', 'two seat canoe', true, ?)", OWNER);
+        jdbcTemplate.update("insert into bookings (id, item_id, booker_id, status, start_time, end_time) " +
+                "values (5301, 531, ?, 'APPROVED', DATEADD('DAY', -61, CURRENT_TIMESTAMP), " +
+                "DATEADD('DAY', -60, CURRENT_TIMESTAMP))", BOOKER);
+        jdbcTemplate.update("insert into bookings (id, item_id, booker_id, status, start_time, end_time) " +
+                "values (5302, 531, ?, 'APPROVED', DATEADD('DAY', 1, CURRENT_TIMESTAMP), " +
+                "DATEADD('DAY', 2, CURRENT_TIMESTAMP))", BOOKER);
+        jdbcTemplate.update("insert into comments (id, text, item_id, author_id, created) " +
+                "values (5301, 'stable', 531, ?, DATEADD('DAY', -59, CURRENT_TIMESTAMP))", BOOKER);
+    }
+
+    @AfterEach
+    void clean() {
+        jdbcTemplate.update("delete from comments where author_id = ?", BOOKER);
+        jdbcTemplate.update("delete from bookings where booker_id = ?", BOOKER);
+        jdbcTemplate.update("delete from bookings_archive where booker_id = ?", BOOKER);
+        jdbcTemplate.update("delete from items where owner_id = ?", OWNER);
+        jdbcTemplate.update("delete from users where id in (?, ?)", OWNER, BOOKER);
+    }
+
+    /**
+     * Once 5302 has run its course the hot table again holds one started and one ended booking, as when the
+     * tag was taken, yet the view now shows 5302 as the last booking and no next one.
+     */
+    @Test
+    void archivingChangesTheOwnerTag() throws Exception {
+        String etag = etag();
+        jdbcTemplate.update("update bookings set start_time = DATEADD('DAY', -2, CURRENT_TIMESTAMP), " +
+                "end_time = DATEADD('DAY', -1, CURRENT_TIMESTAMP) where id = 5302");
+        archiver.archive();
+        mockMvc.perform(get("/items/531").header("X-Sharer-User-Id", OWNER).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void renamingCommentAuthorChangesTheTag() throws Exception {
+        String etag = etag();
+        mockMvc.perform(patch("/users/" + BOOKER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"renamed\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items/531").header("X-Sharer-User-Id", OWNER).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"authorName\":\"renamed\"")));
+    }
+
+    private String etag() throws Exception {
+        String etag = mockMvc.perform(get("/items/531").header("X-Sharer-User-Id", OWNER))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/items/531").header("X-Sharer-User-Id", OWNER).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        return etag;
+    }
+}
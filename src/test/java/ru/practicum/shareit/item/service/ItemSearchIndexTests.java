@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemSearchIndexTests {
+    private final ItemSearchIndex index = new ItemSearchIndex();
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        List<ItemDto> items = List.of(
+                item(1, "Tent", "family tent", true),
+                item(2, "Old tent", "leaky", true),
+                item(3, "Stove", "fits in a tent bag", true),
+                item(4, "Tentacle toy", "rubber", true));
+        assertEquals(List.of(1L, 4L, 2L, 3L), ids(index.search("TENT", 10, () -> items)));
+    }
+
+    @Test
+    void keepsOnlyTheTopMatchesLowestIdFirstOnTies() {
+        List<ItemDto> items = List.of(
+                item(1, "drill", "", true),
+                item(2, "drill", "", true),
+                item(3, "drill", "", true));
+        assertEquals(List.of(1L, 2L), ids(index.search("drill", 2, () -> items)));
+    }
+
+    @Test
+    void shortQueriesUsePostingsAndSkipUnavailableItems() {
+        List<ItemDto> items = List.of(
+                item(1, "Axe", "sharp", true),
+                item(2, "Saw", "sharp", false),
+                item(3, "Rope", "ten metres", true));
+        assertEquals(List.of(1L), ids(index.search("ax", 10, () -> items)));
+        assertEquals(List.of(1L), ids(index.search("x", 10, () -> items)));
+        assertEquals(List.of(), ids(index.search("sa", 10, () -> items)));
+        assertEquals(List.of(), ids(index.search("qz", 10, () -> items)));
+    }
+
+    @Test
+    void reindexingReplacesOldPostings() {
+        index.search("any", 10, () -> List.of(item(1, "Kayak", "two seats", true)));
+        index.index(item(1, "Canoe", "two seats", true));
+        assertEquals(List.of(), ids(index.search("kayak", 10, List::of)));
+        assertEquals(List.of(1L), ids(index.search("canoe", 10, List::of)));
+
+        index.index(item(1, "Canoe", "two seats", false));
+        assertEquals(List.of(), ids(index.search("canoe", 10, List::of)));
+        assertEquals(List.of(), ids(index.search("ca", 10, List::of)));
+    }
+
+    @Test
+    void loadsOnceAndKeepsNewerIndexedItems() {
+        AtomicInteger loads = new AtomicInteger();
+        index.index(item(1, "Ladder", "folded", false));
+        List<ItemDto> stale = List.of(item(1, "Ladder", "folded", true), item(2, "Ladder", "tall", true));
+        index.search("ladder", 10, () -> {
+            loads.incrementAndGet();
+            return stale;
+        });
+        List<ItemDto> found = index.search("ladder", 10, () -> {
+            loads.incrementAndGet();
+            return stale;
+        });
+        assertEquals(1, loads.get());
+        assertEquals(List.of(2L), ids(found));
+    }
+
+    @Test
+    void scanWalksEveryMatchInRankOrderChunkByChunk() {
+        List<ItemDto> items = List.of(
+                item(1, "Rope", "old rope", true),
+                item(2, "Rope", "new rope", true),
+                item(3, "Climbing rope", "", true),
+                item(4, "Harness", "with rope bag", true),
+                item(5, "Rope ladder", "", true));
+        List<List<Long>> chunks = new ArrayList<>();
+        index.scan("rope", 2, () -> items, chunk -> chunks.add(ids(chunk)));
+        assertEquals(List.of(List.of(1L, 2L), List.of(5L, 3L), List.of(4L)), chunks);
+
+        chunks.clear();
+        index.scan("rope", 2, List::of, chunk -> {
+            chunks.add(ids(chunk));
+            return false;
+        });
+        assertEquals(List.of(List.of(1L, 2L)), chunks);
+    }
+
+    private static ItemDto item(long id, String name, String description, boolean available) {
+        return new ItemDto(id, name, description, available, null);
+    }
+
+    private static List<Long> ids(List<ItemDto> items) {
+        return items.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+}
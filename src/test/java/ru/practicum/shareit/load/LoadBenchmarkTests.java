@@ -0,0 +1,215 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@Tag("benchmark")
+@ActiveProfiles({"test", "seed"})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:shareit-load",
+        "shareit.seed.users=5000",
+        "shareit.seed.items=20000",
+        "shareit.seed.bookings=200000",
+        "shareit.seed.comments=50000",
+        "server.tomcat.threads.max=64",
+        "shareit.load.threads=256"
+})
+class LoadBenchmarkTests {
+    private static final String HEADER = "X-Sharer-User-Id";
+    private static final String[] STATES = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"};
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Value("${shareit.load.threads:16}")
+    private int threads;
+    @Value("${shareit.load.warmup-seconds:10}")
+    private int warmupSeconds;
+    @Value("${shareit.load.seconds:30}")
+    private int seconds;
+    @Value("${shareit.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    private final HttpClient setupClient = HttpClient.newHttpClient();
+    private long users;
+    private long[][] itemOwners;
+    private long[][] waitingBookings;
+    private long[][] finishedBookings;
+    private long[][] bookingBookers;
+
+    @BeforeEach
+    void sample() {
+        users = jdbcTemplate.queryForObject("select max(id) from users", Long.class);
+        itemOwners = pairs("select id, owner_id from items");
+        waitingBookings = pairs("select b.id, i.owner_id from bookings b join items i on i.id = b.item_id " +
+                "where b.status = 'WAITING' limit 20000");
+        finishedBookings = pairs("select booker_id, item_id from bookings where end_time < current_timestamp " +
+                "and status = 'APPROVED' limit 20000");
+        bookingBookers = pairs("select id, booker_id from bookings limit 20000");
+    }
+
+    @Test
+    void driveEveryEndpoint() throws Exception {
+        Map<String, Long> pinnedAt = new ConcurrentHashMap<>();
+        LoadDriver.Report report;
+        try (RecordingStream pinning = new RecordingStream()) {
+            if (virtualThreads) {
+                pinning.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1)).withStackTrace();
+                pinning.onEvent("jdk.VirtualThreadPinned", event -> pinnedAt.merge(pinnedFrame(event), 1L, Long::sum));
+                pinning.startAsync();
+            }
+            report = driver().run(Duration.ofSeconds(warmupSeconds), Duration.ofSeconds(seconds));
+        }
+        log.info("{} threads, {} clients\n{}", virtualThreads ? "virtual" : "platform", threads, report.format());
+        if (virtualThreads) {
+            log.info("Carrier pinned {} times over 1 ms, top frames {}",
+                    pinnedAt.values().stream().mapToLong(Long::longValue).sum(),
+                    pinnedAt.entrySet().stream()
+                            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                            .limit(5)
+                            .collect(Collectors.toList()));
+        }
+        assertTrue(report.totalRequests() > 0);
+        assertTrue(report.serverErrors() * 100 <= report.totalRequests(),
+                report.serverErrors() + " server errors in " + report.totalRequests() + " requests");
+    }
+
+    private static String pinnedFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null) return "unknown";
+        return event.getStackTrace().getFrames().stream()
+                .map(RecordedFrame::getMethod)
+                .filter(method -> !method.getType().getName().startsWith("java.")
+                        && !method.getType().getName().startsWith("jdk."))
+                .findFirst()
+                .map(method -> method.getType().getName() + "." + method.getName())
+                .orElse("jdk");
+    }
+
+    LoadDriver driver() {
+        AtomicInteger waiting = new AtomicInteger();
+        return new LoadDriver(threads)
+                .endpoint("POST /users", random -> post("/users", 0, Map.of("name", "load",
+                        "email", UUID.randomUUID() + "@load.shareit")))
+                .endpoint("GET /users", random -> get("/users", 0))
+                .endpoint("GET /users/{id}", random -> get("/users/" + user(random), 0))
+                .endpoint("PATCH /users/{id}", random -> patch("/users/" + user(random), 0,
+                        Map.of("name", "renamed")))
+                .endpoint("DELETE /users/{id}", random -> HttpRequest.newBuilder(uri("/users/" + createUser()))
+                        .DELETE()
+                        .build())
+                .endpoint("POST /items", random -> post("/items", user(random), Map.of("name", "load item",
+                        "description", "created by the load driver", "available", true)))
+                .endpoint("PATCH /items/{id}", random -> {
+                    long[] item = pick(itemOwners, random);
+                    return patch("/items/" + item[0], item[1], Map.of("description", "patched"));
+                })
+                .endpoint("GET /items", random -> get("/items", pick(itemOwners, random)[1]))
+                .endpoint("GET /items/{id}", random -> get("/items/" + pick(itemOwners, random)[0], user(random)))
+                .endpoint("GET /items/search", random -> get("/items/search?text=item%20" + random.nextInt(100), 0))
+                .endpoint("GET /items/search/stream", random -> get("/items/search/stream?size=100&text=item%20" +
+                        random.nextInt(100), 0))
+                .endpoint("POST /items/{id}/comment", random -> {
+                    long[] booking = pick(finishedBookings, random);
+                    return post("/items/" + booking[1] + "/comment", booking[0], Map.of("text", "load comment"));
+                })
+                .endpoint("POST /bookings", random -> {
+                    LocalDateTime start = LocalDateTime.now().plusDays(30 + random.nextInt(3000));
+                    return post("/bookings", user(random), Map.of("itemId", pick(itemOwners, random)[0],
+                            "start", start.toString(), "end", start.plusHours(1 + random.nextInt(48)).toString()));
+                })
+                .endpoint("PATCH /bookings/{id}", random -> {
+                    if (waitingBookings.length == 0) return null;
+                    long[] booking = waitingBookings[waiting.getAndIncrement() % waitingBookings.length];
+                    return HttpRequest.newBuilder(uri("/bookings/" + booking[0] + "?approved=true"))
+                            .header(HEADER, String.valueOf(booking[1]))
+                            .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                            .build();
+                })
+                .endpoint("GET /bookings/{id}", random -> {
+                    long[] booking = pick(bookingBookers, random);
+                    return get("/bookings/" + booking[0], booking[1]);
+                })
+                .endpoint("GET /bookings", random -> get("/bookings?state=" + STATES[random.nextInt(STATES.length)],
+                        pick(bookingBookers, random)[1]))
+                .endpoint("GET /bookings/owner", random -> get("/bookings/owner?state=" +
+                        STATES[random.nextInt(STATES.length)], pick(itemOwners, random)[1]));
+    }
+
+    private long createUser() throws Exception {
+        HttpResponse<String> response = setupClient.send(post("/users", 0, Map.of("name", "doomed",
+                "email", UUID.randomUUID() + "@load.shareit")), HttpResponse.BodyHandlers.ofString());
+        return objectMapper.readTree(response.body()).get("id").asLong();
+    }
+
+    private long user(SplittableRandom random) {
+        return 1 + random.nextLong(users);
+    }
+
+    private static long[] pick(long[][] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private HttpRequest get(String path, long userId) {
+        return HttpRequest.newBuilder(uri(path))
+                .header(HEADER, String.valueOf(userId))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, long userId, Map<String, Object> body) throws Exception {
+        return HttpRequest.newBuilder(uri(path))
+                .header(HEADER, String.valueOf(userId))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private HttpRequest patch(String path, long userId, Map<String, Object> body) throws Exception {
+        return HttpRequest.newBuilder(uri(path))
+                .header(HEADER, String.valueOf(userId))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private long[][] pairs(String sql) {
+        List<long[]> rows = jdbcTemplate.query(sql, (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+        return rows.toArray(new long[0][]);
+    }
+}
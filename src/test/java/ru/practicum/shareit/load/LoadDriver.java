@@ -0,0 +1,160 @@
+package ru.practicum.shareit.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load generator: every worker picks a random endpoint, sends it and records the latency.
+ */
+public class LoadDriver {
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+    private final int threads;
+
+    public LoadDriver(int threads) {
+        this.threads = threads;
+    }
+
+    public LoadDriver endpoint(String name, Endpoint endpoint) {
+        endpoints.put(name, endpoint);
+        recorders.put(name, new Recorder());
+        return this;
+    }
+
+    public Report run(Duration warmup, Duration duration) throws InterruptedException {
+        drive(warmup);
+        recorders.values().forEach(Recorder::reset);
+        long started = System.nanoTime();
+        drive(duration);
+        return new Report(recorders, System.nanoTime() - started);
+    }
+
+    private void drive(Duration duration) throws InterruptedException {
+        List<String> names = new ArrayList<>(endpoints.keySet());
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    String name = names.get(random.nextInt(names.size()));
+                    call(name, random);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(duration.toMillis() + 60_000, TimeUnit.MILLISECONDS);
+    }
+
+    private void call(String name, SplittableRandom random) {
+        Recorder recorder = recorders.get(name);
+        try {
+            HttpRequest request = endpoints.get(name).next(random);
+            if (request == null) return;
+            long start = System.nanoTime();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            recorder.record(System.nanoTime() - start, response.statusCode());
+        } catch (Exception e) {
+            recorder.record(0, 599);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Endpoint {
+        HttpRequest next(SplittableRandom random) throws Exception;
+    }
+
+    private static class Recorder {
+        private long[] samples = new long[1024];
+        private int count;
+        private int clientErrors;
+        private int serverErrors;
+
+        synchronized void record(long nanos, int status) {
+            if (status >= 500) {
+                serverErrors++;
+                return;
+            }
+            if (status >= 400) clientErrors++;
+            if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+            samples[count++] = nanos;
+        }
+
+        synchronized void reset() {
+            count = 0;
+            clientErrors = 0;
+            serverErrors = 0;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(samples, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    public static class Report {
+        private final Map<String, Recorder> recorders;
+        private final long elapsedNanos;
+
+        Report(Map<String, Recorder> recorders, long elapsedNanos) {
+            this.recorders = recorders;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long totalRequests() {
+            return recorders.values().stream().mapToLong(recorder -> recorder.count).sum();
+        }
+
+        public long serverErrors() {
+            return recorders.values().stream().mapToLong(recorder -> recorder.serverErrors).sum();
+        }
+
+        public double throughput() {
+            return totalRequests() / (elapsedNanos / 1e9);
+        }
+
+        public double percentile(double percentile) {
+            long[] all = recorders.values().stream()
+                    .flatMapToLong(recorder -> Arrays.stream(recorder.sorted()))
+                    .sorted()
+                    .toArray();
+            return millis(all, percentile);
+        }
+
+        public String format() {
+            double seconds = elapsedNanos / 1e9;
+            StringBuilder out = new StringBuilder(String.format("%-36s %8s %8s %8s %10s %9s %9s %9s%n",
+                    "endpoint", "ok", "4xx", "5xx", "req/s", "p50 ms", "p99 ms", "p999 ms"));
+            recorders.forEach((name, recorder) -> {
+                long[] sorted = recorder.sorted();
+                out.append(String.format("%-36s %8d %8d %8d %10.1f %9.2f %9.2f %9.2f%n", name,
+                        sorted.length - recorder.clientErrors, recorder.clientErrors, recorder.serverErrors,
+                        sorted.length / seconds, millis(sorted, 0.5), millis(sorted, 0.99), millis(sorted, 0.999)));
+            });
+            out.append(String.format("%-36s %8d %8s %8s %10.1f %9.2f %9.2f %9.2f%n", "total", totalRequests(), "",
+                    "", throughput(), percentile(0.5), percentile(0.99), percentile(0.999)));
+            return out.toString();
+        }
+
+        private static double millis(long[] sorted, double percentile) {
+            if (sorted.length == 0) return 0;
+            int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
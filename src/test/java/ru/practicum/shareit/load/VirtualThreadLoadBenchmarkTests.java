@@ -0,0 +1,9 @@
+package ru.practicum.shareit.load;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.test.context.TestPropertySource;
+
+@Tag("benchmark")
+@TestPropertySource(properties = "shareit.virtual-threads.enabled=true")
+class VirtualThreadLoadBenchmarkTests extends LoadBenchmarkTests {
+}
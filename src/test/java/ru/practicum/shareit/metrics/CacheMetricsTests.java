@@ -0,0 +1,46 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class CacheMetricsTests {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clean() {
+        jdbcTemplate.update("delete from users where id = 521");
+    }
+
+    @Test
+    void cachedFindByIdIsCountedAsHit() {
+        jdbcTemplate.update("insert into users (id, name, email) values (521, 'cached', 'cached@metrics.test')");
+        double hits = requests("hit");
+        double misses = requests("miss");
+        userRepository.findById(521L);
+        assertEquals(misses + 1, requests("miss"));
+        userRepository.findById(521L);
+        userRepository.findById(521L);
+        assertEquals(hits + 2, requests("hit"));
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", "users")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.UnsupportedStateException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class ServiceMetricsAspectTests {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void unknownStatesShareOneTimer() {
+        jdbcTemplate.update("insert into users (id, name, email) values (501, 'metrics', 'metrics@test.test')");
+        try {
+            assertThrows(UnsupportedStateException.class, () -> bookingService.getByBooker(501, "x1", 0, 20, null));
+            assertThrows(UnsupportedStateException.class, () -> bookingService.getByBooker(501, "x2", 0, 20, null));
+            bookingService.getByBooker(501, "PAST", 0, 20, null);
+        } finally {
+            jdbcTemplate.update("delete from users where id = 501");
+        }
+        assertNull(meterRegistry.find("shareit.service").tag("state", "x1").timer());
+        assertNotNull(meterRegistry.find("shareit.service").tag("state", "PAST").timer());
+        assertEquals(2L, meterRegistry.get("shareit.service")
+                .tag("state", ServiceMetricsAspect.UNKNOWN_STATE)
+                .tag("method", "getByBooker")
+                .timer()
+                .count());
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemRequestTests {
+    private static final long REQUESTOR = 301;
+    private static final long ANSWERER = 302;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'requestor', 'requestor@request.test'), " +
+                "(?, 'answerer', 'answerer@request.test')", REQUESTOR, ANSWERER);
+    }
+
+    @AfterEach
+    void clean() {
+        jdbcTemplate.update("delete from items where owner_id in (?, ?)", REQUESTOR, ANSWERER);
+        jdbcTemplate.update("delete from requests where requestor_id in (?, ?)", REQUESTOR, ANSWERER);
+        jdbcTemplate.update("delete from users where id in (?, ?)", REQUESTOR, ANSWERER);
+    }
+
+    @Test
+    void answersAreGroupedUnderTheirRequests() throws Exception {
+        long drill = createRequest("need a drill");
+        long ladder = createRequest("need a ladder");
+        long firstDrill = createItem("drill", drill);
+        long secondDrill = createItem("hammer drill", drill);
+        createItem("saw", null);
+
+        JsonNode own = json(perform(get("/requests"), REQUESTOR));
+        assertEquals(List.of(ladder, drill), ids(own));
+        assertEquals(List.of(), ids(own.get(0).get("items")));
+        assertEquals(List.of(firstDrill, secondDrill), ids(own.get(1).get("items")));
+
+        JsonNode single = json(perform(get("/requests/" + drill), ANSWERER));
+        assertEquals(drill, single.get("id").asLong());
+        assertEquals(List.of(firstDrill, secondDrill), ids(single.get("items")));
+    }
+
+    @Test
+    void otherUsersRequestsPageByExactOffset() throws Exception {
+        long first = createRequest("first");
+        long second = createRequest("second");
+        long third = createRequest("third");
+        assertEquals(List.of(third, second, first), ids(json(perform(get("/requests/all"), ANSWERER))));
+        assertEquals(List.of(second, first), ids(json(perform(get("/requests/all?from=1&size=2"), ANSWERER))));
+        assertEquals(List.of(), ids(json(perform(get("/requests/all"), REQUESTOR))));
+    }
+
+    @Test
+    void unknownRequestIsNotFound() throws Exception {
+        mockMvc.perform(get("/requests/999999").header("X-Sharer-User-Id", REQUESTOR))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void importRejectsOnlyRowsWithUnknownRequests() throws Exception {
+        long request = createRequest("need a lamp");
+        String rows = "{\"name\": \"lamp\", \"description\": \"desk lamp\", \"available\": true, \"requestId\": " +
+                request + "}\n" +
+                "{\"name\": \"lamp\", \"description\": \"floor lamp\", \"available\": true, \"requestId\": 999999}\n" +
+                "{\"name\": \"lamp\", \"description\": \"wall lamp\", \"available\": true}\n";
+        JsonNode result = json(perform(post("/items/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(rows), ANSWERER));
+        assertEquals(2, result.get("imported").asLong());
+        assertEquals(1, result.get("failed").asLong());
+        assertEquals(2, result.get("errors").get(0).get("line").asLong());
+        assertEquals(1, json(perform(get("/requests/" + request), REQUESTOR)).get("items").size());
+    }
+
+    @Test
+    void overlongDescriptionIsBadRequest() throws Exception {
+        mockMvc.perform(post("/requests")
+                        .header("X-Sharer-User-Id", REQUESTOR)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\": \"" + "x".repeat(513) + "\"}"))
+                .andExpect(status().isBadRequest());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from requests where requestor_id = ?",
+                Integer.class, REQUESTOR));
+    }
+
+    private long createRequest(String description) throws Exception {
+        return json(perform(post("/requests")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\": \"" + description + "\"}"), REQUESTOR)).get("id").asLong();
+    }
+
+    private long createItem(String name, Long requestId) throws Exception {
+        return json(perform(post("/items")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"" + name + "\", \"description\": \"tool\", \"available\": true, " +
+                        "\"requestId\": " + requestId + "}"), ANSWERER)).get("id").asLong();
+    }
+
+    private String perform(MockHttpServletRequestBuilder request, long userId) throws Exception {
+        return mockMvc.perform(request.header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+
+    private JsonNode json(String body) throws Exception {
+        return objectMapper.readTree(body);
+    }
+
+    private static List<Long> ids(JsonNode nodes) {
+        List<Long> ids = new ArrayList<>();
+        nodes.forEach(node -> ids.add(node.get("id").asLong()));
+        return ids;
+    }
+}